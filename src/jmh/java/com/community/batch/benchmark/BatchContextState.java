@@ -0,0 +1,60 @@
+package com.community.batch.benchmark;
+
+import com.community.batch.BatchApplication;
+import com.community.batch.generator.UserDataGenerator;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.SQLException;
+
+/**
+ * embedded H2 위에 스프링 컨텍스트를 띄우고 userCount 만큼의 휴면 전환 대상 데이터를 만들어 둔다.
+ * 10^6, 10^7 규모로 측정하려면 userCount 의 @Param 값을 추가한다. (예: @Param({ "100000", "1000000", "10000000" }))
+ */
+@State(Scope.Benchmark)
+public class BatchContextState {
+
+	@Param({ "100000" })
+	public int userCount;
+
+	public ConfigurableApplicationContext context;
+	public JdbcTemplate jdbcTemplate;
+
+	@Setup(Level.Trial)
+	public void startContext() throws SQLException {
+		// application.yml 보다 우선 적용되도록 command line 인자로 전달한다.
+		context = new SpringApplicationBuilder(BatchApplication.class)
+			.web(WebApplicationType.NONE)
+			.run(
+				"--spring.jpa.show-sql=false",
+				"--batch.inactive-user.simulated-delay-ms=0",
+				"--batch.inactive-user.side-effects.notification-latency-ms=0",
+				"--batch.inactive-user.side-effects.archive-latency-ms=0",
+				"--logging.level.com.community.batch=ERROR",
+				"--logging.level.org.springframework.batch=ERROR",
+				// 모든 회원이 휴면 전환 대상이 되도록 ACTIVE, 1년 이상 지난 updatedDate 로 생성한다.
+				"--generator.count=" + userCount,
+				"--generator.status-weights.INACTIVE=0",
+				"--generator.updated-date-min-days=400");
+		jdbcTemplate = context.getBean(JdbcTemplate.class);
+		context.getBean(UserDataGenerator.class).generate();
+	}
+
+	// 모든 row를 다시 휴면 전환 대상(ACTIVE)으로 되돌린다.
+	public void resetStatus() {
+		jdbcTemplate.update("update user set status = 'ACTIVE'");
+	}
+
+	@TearDown(Level.Trial)
+	public void closeContext() {
+		context.close();
+	}
+}
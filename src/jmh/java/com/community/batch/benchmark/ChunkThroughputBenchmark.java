@@ -0,0 +1,57 @@
+package com.community.batch.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * inactiveUserPartitionJob 전체(read -> process -> write)를 한 번 실행하는 시간.
+ * 매 실행 전에 모든 회원을 ACTIVE 로 되돌리므로 BatchContextState.userCount 만큼이 매번 휴면 전환된다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, batchSize = 1)
+@Measurement(iterations = 5, batchSize = 1)
+public class ChunkThroughputBenchmark {
+
+	private BatchContextState state;
+	private JobLauncher jobLauncher;
+	private Job job;
+
+	@Setup(Level.Trial)
+	public void setUp(BatchContextState state) {
+		this.state = state;
+		this.jobLauncher = state.context.getBean(JobLauncher.class);
+		this.job = state.context.getBean("inactiveUserPartitionJob", Job.class);
+	}
+
+	@Setup(Level.Iteration)
+	public void resetStatus() {
+		state.resetStatus();
+	}
+
+	@Benchmark
+	public JobExecution inactiveUserPartitionJob() throws Exception {
+		JobExecution jobExecution = jobLauncher.run(job,
+			new JobParametersBuilder().addLong("run.id", System.nanoTime()).toJobParameters());
+		if (jobExecution.getStatus() != BatchStatus.COMPLETED) {
+			throw new IllegalStateException("job failed: " + jobExecution.getAllFailureExceptions());
+		}
+		return jobExecution;
+	}
+}
@@ -0,0 +1,122 @@
+package com.community.batch.benchmark;
+
+import com.community.batch.BatchApplication;
+import com.community.batch.domain.InactiveUserCandidate;
+import com.community.batch.domain.User;
+import com.community.batch.domain.repository.UserRepository;
+import com.community.batch.generator.UserDataGenerator;
+import com.community.batch.jobs.writers.InactiveUserEntityWriter;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * SAVE_ALL writer(InactiveUserEntityWriter)가 chunk 하나를 write 할 때 DB 로 보내는 statement 수.
+ * - jdbcBatchSize=0   : UPDATE 가 entity 마다 한 statement 씩 (select 1 + update chunkSize)
+ * - jdbcBatchSize=100 : UPDATE 들이 JDBC batch 하나로 전송된다 (select 1 + update 1)
+ * chunk 당 statement 수는 jmh 결과의 보조 지표 saveAllChunk:statements / saveAllChunk:chunks 로 확인한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EntityWriterBatchingBenchmark {
+
+	private static final int USER_COUNT = 10_000;
+
+	@Param({ "0", "100" })
+	public int jdbcBatchSize;
+
+	@Param({ "100" })
+	public int chunkSize;
+
+	private ConfigurableApplicationContext context;
+	private JdbcTemplate jdbcTemplate;
+	private TransactionTemplate transactionTemplate;
+	private InactiveUserEntityWriter writer;
+	private Statistics statistics;
+	private List<InactiveUserCandidate> chunk;
+	private long minIdx;
+	private long maxIdx;
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class StatementCounters {
+		public long statements;
+		public long chunks;
+	}
+
+	@Setup(Level.Trial)
+	public void startContext() throws Exception {
+		// batch_size 는 EntityManagerFactory 생성시에 정해지므로 param 마다 컨텍스트를 따로 띄운다.
+		context = new SpringApplicationBuilder(BatchApplication.class)
+			.web(WebApplicationType.NONE)
+			.run(
+				"--spring.jpa.show-sql=false",
+				"--spring.jpa.properties.hibernate.jdbc.batch_size=" + jdbcBatchSize,
+				"--spring.jpa.properties.hibernate.order_updates=true",
+				"--spring.jpa.properties.hibernate.generate_statistics=true",
+				"--logging.level.com.community.batch=ERROR",
+				"--logging.level.org.springframework.batch=ERROR",
+				"--logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=ERROR",
+				"--generator.count=" + USER_COUNT);
+		context.getBean(UserDataGenerator.class).generate();
+
+		EntityManagerFactory entityManagerFactory = context.getBean(EntityManagerFactory.class);
+		UserRepository userRepository = context.getBean(UserRepository.class);
+		jdbcTemplate = context.getBean(JdbcTemplate.class);
+		transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+		writer = new InactiveUserEntityWriter(userRepository, entityManagerFactory);
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		List<User> users = userRepository.findAll(PageRequest.of(0, chunkSize)).getContent();
+		chunk = users.stream()
+			.map(user -> new InactiveUserCandidate(user.getIdx(), user.getGrade(), user.getSocialType()))
+			.collect(Collectors.toList());
+		minIdx = chunk.stream().mapToLong(InactiveUserCandidate::getIdx).min().orElse(0);
+		maxIdx = chunk.stream().mapToLong(InactiveUserCandidate::getIdx).max().orElse(-1);
+	}
+
+	// 이미 INACTIVE 이면 dirty checking 으로 UPDATE 가 생략되므로 매번 ACTIVE 로 되돌린다.
+	@Setup(Level.Invocation)
+	public void resetChunk() {
+		jdbcTemplate.update("update user set status = 'ACTIVE' where idx between ? and ?", minIdx, maxIdx);
+	}
+
+	@Benchmark
+	public void saveAllChunk(StatementCounters counters) {
+		long before = statistics.getPrepareStatementCount();
+		transactionTemplate.execute(status -> {
+			writer.write(chunk);
+			return null;
+		});
+		counters.statements += statistics.getPrepareStatementCount() - before;
+		counters.chunks++;
+	}
+
+	@TearDown(Level.Trial)
+	public void closeContext() {
+		context.close();
+	}
+}
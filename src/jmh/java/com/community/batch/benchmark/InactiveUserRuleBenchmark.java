@@ -0,0 +1,71 @@
+package com.community.batch.benchmark;
+
+import com.community.batch.domain.InactiveUserCandidate;
+import com.community.batch.domain.enums.Grade;
+import com.community.batch.domain.enums.SocialType;
+import com.community.batch.jobs.processor.InactiveUserRuleProcessor;
+import com.community.batch.jobs.processor.InactiveUserRuleTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * grade, socialType 별 휴면 기준 판단(InactiveUserRuleProcessor)과 SocialType 의 role 조회의 item 당 비용.
+ * item 당 할당량은 GC profiler 로 확인한다. gc.alloc.rate.norm 이 0 B/op 에 가까워야 한다.
+ * ./gradlew jmh -PjmhInclude=InactiveUserRule -PjmhProfilers=gc
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class InactiveUserRuleBenchmark {
+
+	private static final int ITEMS = 1024; // 2의 거듭제곱 (index 를 & 로 계산)
+
+	private InactiveUserRuleProcessor processor;
+	private InactiveUserCandidate[] candidates;
+	private String[] authorities;
+	private int index;
+
+	@Setup
+	public void setUp() {
+		LocalDateTime now = LocalDateTime.now();
+		processor = new InactiveUserRuleProcessor(InactiveUserRuleTable.uniform(Period.ofYears(1))
+			.withRetention(Grade.VIP, null, Period.ofYears(3))
+			.withRetention(null, SocialType.KAKAO, Period.ofMonths(6)));
+		processor.prepare(now);
+
+		candidates = new InactiveUserCandidate[ITEMS];
+		authorities = new String[ITEMS];
+		Grade[] grades = Grade.values();
+		SocialType[] socialTypes = SocialType.values();
+		for (int i = 0; i < ITEMS; i++) {
+			SocialType socialType = socialTypes[i % socialTypes.length];
+			candidates[i] = new InactiveUserCandidate((long) i, grades[i % grades.length], socialType,
+				now.minusDays(i % 1500));
+			authorities[i] = "ROLE_" + socialType.name();
+		}
+	}
+
+	@Benchmark
+	public InactiveUserCandidate evaluateRule() {
+		return processor.process(candidates[index++ & (ITEMS - 1)]);
+	}
+
+	@Benchmark
+	public SocialType roleLookup() {
+		return SocialType.fromRoleType(authorities[index++ & (ITEMS - 1)]);
+	}
+
+	@Benchmark
+	public boolean roleEquals() {
+		return SocialType.KAKAO.isEquals(authorities[index++ & (ITEMS - 1)]);
+	}
+}
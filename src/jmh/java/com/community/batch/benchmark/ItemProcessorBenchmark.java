@@ -0,0 +1,42 @@
+package com.community.batch.benchmark;
+
+import com.community.batch.domain.User;
+import com.community.batch.domain.enums.UserStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 휴면 전환 processor 의 item 당 처리 비용 (User.setInactive())
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ItemProcessorBenchmark {
+
+	private User user;
+
+	@Setup
+	public void createUser() {
+		LocalDateTime now = LocalDateTime.now();
+		user = User.builder()
+			.name("user")
+			.email("user@test.com")
+			.status(UserStatus.ACTIVE)
+			.createdDate(now)
+			.updatedDate(now.minusYears(2))
+			.build();
+	}
+
+	@Benchmark
+	public User setInactive() {
+		return user.setInactive();
+	}
+}
@@ -0,0 +1,132 @@
+package com.community.batch.benchmark;
+
+import com.community.batch.benchmark.QueueItemReaderContentionBenchmark.SynchronizedArrayItemReader;
+import com.community.batch.jobs.readers.QueueItemReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.batch.item.support.ListItemReader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * reader 하나를 itemCount 개의 item을 모두 읽을 때 까지 걸리는 시간을 측정한다.
+ * 여러 스레드가 하나의 reader를 나누어 읽는 경우는 *_4threads 를 참고한다. (2~32 스레드 비교는 QueueItemReaderContentionBenchmark, -PjmhInclude=QueueItemReaderContention)
+ * synchronized 비교 대상은 같은 배열을 index 로 읽는 SynchronizedArrayItemReader 이다.
+ * Spring Batch 4.0 의 ListItemReader 는 read() 마다 list.remove(0) 을 하므로 전체를 읽는 비용이 O(n²) 이다.
+ * 이 비용은 listItemReader 에서 따로, 더 적은 listItemCount 로 측정한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, batchSize = 1)
+@Measurement(iterations = 10, batchSize = 1)
+public class ItemReaderBenchmark {
+
+	private static final int CHUNK_SIZE = 100;
+
+	@Param({ "1000000" })
+	public int itemCount;
+
+	private List<Long> data;
+	private QueueItemReader<Long> queueItemReader;
+	private SynchronizedArrayItemReader<Long> synchronizedArrayItemReader;
+
+	@State(Scope.Benchmark)
+	public static class ListItemReaderState {
+
+		// 1,000,000 개를 remove(0) 으로 읽으면 한 번에 수 분이 걸리므로 줄여서 측정한다.
+		@Param({ "10000", "100000" })
+		public int listItemCount;
+
+		private List<Long> data;
+		private ListItemReader<Long> reader;
+
+		@Setup(Level.Trial)
+		public void createData() {
+			data = new ArrayList<>(listItemCount);
+			for (long i = 0; i < listItemCount; i++) {
+				data.add(i);
+			}
+		}
+
+		@Setup(Level.Iteration)
+		public void createReader() {
+			reader = new ListItemReader<>(data);
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void createData() {
+		data = new ArrayList<>(itemCount);
+		for (long i = 0; i < itemCount; i++) {
+			data.add(i);
+		}
+	}
+
+	@Setup(Level.Iteration)
+	public void createReaders() {
+		queueItemReader = new QueueItemReader<>(data);
+		synchronizedArrayItemReader = new SynchronizedArrayItemReader<>(data);
+	}
+
+	@Benchmark
+	public void queueItemReader(Blackhole blackhole) throws Exception {
+		drain(queueItemReader, blackhole);
+	}
+
+	@Benchmark
+	public void queueItemReaderBatched(Blackhole blackhole) {
+		List<Long> chunk;
+		while (!(chunk = queueItemReader.read(CHUNK_SIZE)).isEmpty()) {
+			blackhole.consume(chunk);
+		}
+	}
+
+	@Benchmark
+	public void listItemReader(ListItemReaderState state, Blackhole blackhole) {
+		Long item;
+		while ((item = state.reader.read()) != null) {
+			blackhole.consume(item);
+		}
+	}
+
+	@Benchmark
+	public void synchronizedArrayItemReader(Blackhole blackhole) {
+		Long item;
+		while ((item = synchronizedArrayItemReader.read()) != null) {
+			blackhole.consume(item);
+		}
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void queueItemReader_4threads(Blackhole blackhole) throws Exception {
+		drain(queueItemReader, blackhole);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void synchronizedArrayItemReader_4threads(Blackhole blackhole) {
+		synchronizedArrayItemReader(blackhole);
+	}
+
+	private void drain(QueueItemReader<Long> reader, Blackhole blackhole) throws Exception {
+		Long item;
+		while ((item = reader.read()) != null) {
+			blackhole.consume(item);
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package com.community.batch.benchmark;
+
+import com.community.batch.domain.User;
+import com.community.batch.domain.repository.UserRepository;
+import com.community.batch.jobs.writers.InactiveUserBulkUpdateWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * chunk 하나(chunkSize 개)를 write 하는 비용: saveAll() vs 한 번의 bulk UPDATE
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ItemWriterBenchmark {
+
+	@Param({ "5", "100", "1000" })
+	public int chunkSize;
+
+	private List<User> chunk;
+	private UserRepository userRepository;
+	private InactiveUserBulkUpdateWriter<User> bulkUpdateWriter;
+	private TransactionTemplate transactionTemplate;
+	private JdbcTemplate jdbcTemplate;
+	private long minIdx;
+	private long maxIdx;
+
+	@Setup(Level.Trial)
+	public void setUp(BatchContextState state) {
+		userRepository = state.context.getBean(UserRepository.class);
+		bulkUpdateWriter = new InactiveUserBulkUpdateWriter<>(state.context.getBean(DataSource.class), User::getIdx);
+		transactionTemplate = new TransactionTemplate(state.context.getBean(PlatformTransactionManager.class));
+		jdbcTemplate = state.context.getBean(JdbcTemplate.class);
+		chunk = userRepository.findAll(PageRequest.of(0, chunkSize)).getContent();
+		chunk.forEach(User::setInactive);
+		minIdx = chunk.stream().mapToLong(User::getIdx).min().orElse(0);
+		maxIdx = chunk.stream().mapToLong(User::getIdx).max().orElse(-1);
+	}
+
+	// 이미 INACTIVE 이면 saveAll 은 UPDATE 를 생략하고 bulk UPDATE 는 0 건을 갱신하므로 매번 ACTIVE 로 되돌린다.
+	@Setup(Level.Invocation)
+	public void resetChunk() {
+		jdbcTemplate.update("update user set status = 'ACTIVE' where idx between ? and ?", minIdx, maxIdx);
+	}
+
+	@Benchmark
+	public void saveAll() {
+		transactionTemplate.execute(status -> userRepository.saveAll(chunk));
+	}
+
+	@Benchmark
+	public void bulkUpdate() {
+		transactionTemplate.execute(status -> {
+			bulkUpdateWriter.write(chunk);
+			return null;
+		});
+	}
+}
@@ -0,0 +1,100 @@
+package com.community.batch.benchmark;
+
+import com.community.batch.BatchApplication;
+import com.community.batch.generator.UserDataGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * chunk 가 작을 때 job repository 메타데이터(BATCH_STEP_EXECUTION, BATCH_STEP_EXECUTION_CONTEXT) 갱신이 전체 실행 시간에 주는 영향.
+ * - JDBC       : chunk 마다 step execution, ExecutionContext 를 갱신 (기본)
+ * - COALESCING : flushEveryChunks 마다 한 번 갱신
+ * 두 mode 의 차이가 chunk 당 메타데이터 기록 비용이다. (chunkSize 가 클수록 차이가 줄어든다)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, batchSize = 1)
+@Measurement(iterations = 5, batchSize = 1)
+public class JobRepositoryBenchmark {
+
+	private static final int USER_COUNT = 50_000;
+
+	@Param({ "JDBC", "COALESCING" })
+	public String jobRepositoryMode;
+
+	@Param({ "10" })
+	public int chunkSize;
+
+	private ConfigurableApplicationContext context;
+	private JdbcTemplate jdbcTemplate;
+	private JobLauncher jobLauncher;
+	private Job job;
+
+	@Setup(Level.Trial)
+	public void startContext() {
+		// JobRepository 는 context 기동시에 정해지므로 param 마다 컨텍스트를 따로 띄운다.
+		context = new SpringApplicationBuilder(BatchApplication.class)
+			.web(WebApplicationType.NONE)
+			.run(
+				"--spring.jpa.show-sql=false",
+				"--batch.job-repository.mode=" + jobRepositoryMode,
+				"--batch.chunk.initial-size=" + chunkSize,
+				"--batch.chunk.min-size=" + chunkSize,
+				"--batch.chunk.max-size=" + chunkSize,
+				"--batch.inactive-user.simulated-delay-ms=0",
+				"--batch.inactive-user.side-effects.notification-latency-ms=0",
+				"--batch.inactive-user.side-effects.archive-latency-ms=0",
+				"--batch.metrics.export-file=",
+				"--logging.level.com.community.batch=ERROR",
+				"--logging.level.org.springframework.batch=ERROR",
+				"--generator.count=" + USER_COUNT,
+				"--generator.status-weights.INACTIVE=0",
+				"--generator.updated-date-min-days=400");
+		context.getBean(UserDataGenerator.class).generate();
+		jdbcTemplate = context.getBean(JdbcTemplate.class);
+		jobLauncher = context.getBean(JobLauncher.class);
+		job = context.getBean("inactiveUserPartitionJob", Job.class);
+	}
+
+	@Setup(Level.Iteration)
+	public void resetStatus() {
+		jdbcTemplate.update("update user set status = 'ACTIVE'");
+	}
+
+	@Benchmark
+	public JobExecution inactiveUserPartitionJob() throws Exception {
+		JobExecution jobExecution = jobLauncher.run(job,
+			new JobParametersBuilder().addLong("run.id", System.nanoTime()).toJobParameters());
+		if (jobExecution.getStatus() != BatchStatus.COMPLETED) {
+			throw new IllegalStateException("job failed: " + jobExecution.getAllFailureExceptions());
+		}
+		return jobExecution;
+	}
+
+	@TearDown(Level.Trial)
+	public void closeContext() {
+		context.close();
+	}
+}
@@ -0,0 +1,168 @@
+package com.community.batch.benchmark;
+
+import com.community.batch.jobs.readers.QueueItemReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 여러 스레드가 reader 하나를 동시에 read() 해서 itemCount 개의 item 을 모두 읽을 때 까지 걸리는 시간. (스레드 수: @Threads)
+ * - synchronized: 같은 배열을 index cursor 로 읽는 synchronized read() (multi-thread step 에서 사용하던 방식. lock 여부만 다르다)
+ * - queue: QueueItemReader.read(), CAS 로 item 하나씩 선점
+ * - queueBatched: QueueItemReader.read(n), CAS 한 번에 chunk 하나 분량을 선점
+ * 1, 4 스레드는 ItemReaderBenchmark 를 참고한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, batchSize = 1)
+@Measurement(iterations = 10, batchSize = 1)
+public class QueueItemReaderContentionBenchmark {
+
+	private static final int CHUNK_SIZE = 100;
+
+	@Param({ "2000000" })
+	public int itemCount;
+
+	private List<Long> data;
+	private QueueItemReader<Long> queueItemReader;
+	private SynchronizedArrayItemReader<Long> synchronizedItemReader;
+
+	@Setup(Level.Trial)
+	public void createData() {
+		data = new ArrayList<>(itemCount);
+		for (long i = 0; i < itemCount; i++) {
+			data.add(i);
+		}
+	}
+
+	// 모든 스레드가 같은 reader 를 나누어 읽는다. (iteration 마다 처음부터)
+	@Setup(Level.Iteration)
+	public void createReaders() {
+		queueItemReader = new QueueItemReader<>(data);
+		synchronizedItemReader = new SynchronizedArrayItemReader<>(data);
+	}
+
+	@Benchmark
+	@Threads(2)
+	public void synchronized_2threads(Blackhole blackhole) {
+		drainSynchronized(blackhole);
+	}
+
+	@Benchmark
+	@Threads(2)
+	public void queue_2threads(Blackhole blackhole) throws Exception {
+		drainQueue(blackhole);
+	}
+
+	@Benchmark
+	@Threads(2)
+	public void queueBatched_2threads(Blackhole blackhole) {
+		drainQueueBatched(blackhole);
+	}
+
+	@Benchmark
+	@Threads(8)
+	public void synchronized_8threads(Blackhole blackhole) {
+		drainSynchronized(blackhole);
+	}
+
+	@Benchmark
+	@Threads(8)
+	public void queue_8threads(Blackhole blackhole) throws Exception {
+		drainQueue(blackhole);
+	}
+
+	@Benchmark
+	@Threads(8)
+	public void queueBatched_8threads(Blackhole blackhole) {
+		drainQueueBatched(blackhole);
+	}
+
+	@Benchmark
+	@Threads(16)
+	public void synchronized_16threads(Blackhole blackhole) {
+		drainSynchronized(blackhole);
+	}
+
+	@Benchmark
+	@Threads(16)
+	public void queue_16threads(Blackhole blackhole) throws Exception {
+		drainQueue(blackhole);
+	}
+
+	@Benchmark
+	@Threads(16)
+	public void queueBatched_16threads(Blackhole blackhole) {
+		drainQueueBatched(blackhole);
+	}
+
+	@Benchmark
+	@Threads(32)
+	public void synchronized_32threads(Blackhole blackhole) {
+		drainSynchronized(blackhole);
+	}
+
+	@Benchmark
+	@Threads(32)
+	public void queue_32threads(Blackhole blackhole) throws Exception {
+		drainQueue(blackhole);
+	}
+
+	@Benchmark
+	@Threads(32)
+	public void queueBatched_32threads(Blackhole blackhole) {
+		drainQueueBatched(blackhole);
+	}
+
+	private void drainSynchronized(Blackhole blackhole) {
+		Long item;
+		while ((item = synchronizedItemReader.read()) != null) {
+			blackhole.consume(item);
+		}
+	}
+
+	private void drainQueue(Blackhole blackhole) throws Exception {
+		Long item;
+		while ((item = queueItemReader.read()) != null) {
+			blackhole.consume(item);
+		}
+	}
+
+	private void drainQueueBatched(Blackhole blackhole) {
+		List<Long> chunk;
+		while (!(chunk = queueItemReader.read(CHUNK_SIZE)).isEmpty()) {
+			blackhole.consume(chunk);
+		}
+	}
+
+	// Spring Batch 4.0 의 ListItemReader 는 read() 마다 list.remove(0) 으로 배열을 당기므로(O(n) 복사) 비교 대상으로 쓰지 않는다.
+	static class SynchronizedArrayItemReader<T> {
+
+		private final Object[] items;
+		private int cursor;
+
+		SynchronizedArrayItemReader(List<T> data) {
+			this.items = data.toArray();
+		}
+
+		@SuppressWarnings("unchecked")
+		synchronized T read() {
+			return cursor < items.length ? (T) items[cursor++] : null;
+		}
+	}
+}
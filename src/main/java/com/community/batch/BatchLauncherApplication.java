@@ -0,0 +1,106 @@
+package com.community.batch;
+
+import com.community.batch.jobs.listener.BatchMetrics;
+import com.community.batch.launcher.LazyInitBeanFactoryPostProcessor;
+import com.community.batch.launcher.StartupTimings;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.converter.DefaultJobParametersConverter;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.CommandLinePropertySource;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.util.StringUtils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * cron 등으로 짧게 실행하는 batch 의 entry point. spring.batch.job.names 에 지정한 job 하나를 실행하고 종료한다.
+ * 예) --spring.profiles.active=prod --spring.batch.job.names=inactiveUserPartitionJob runDate=2020-07-11
+ * (--로 시작하지 않는 key=value 인자는 JobParameters 가 된다. 같은 JobParameters 로 다시 실행하면 실패한 job 을 재시작한다)
+ *
+ * 실행 시간이 짧은 job 은 JVM, context 기동 시간의 비중이 크므로
+ * - batch.launcher.lazy-init: 모든 bean 을 lazy-init 으로 등록해서 실행할 job 이 참조하는 bean 만 생성한다.
+ * - batch.launcher.skip-schema: 기동시 schema 생성/검사(ddl-auto, BATCH_* 테이블 초기화)를 하지 않는다. (prod profile)
+ * - CDS archive: ./gradlew cdsArchive 로 training run 에서 로드된 class 를 archive 로 만들어 두고
+ *   -XX:SharedArchiveFile 로 실행하면 class loading 시간이 줄어든다. (build.gradle 참고)
+ * 구간별 소요 시간은 로그와 batch.launcher.startup metric 으로 남긴다.
+ */
+@Slf4j
+public class BatchLauncherApplication {
+
+	private static final String JOB_NAMES = "spring.batch.job.names";
+	private static final String LAZY_INIT = "batch.launcher.lazy-init";
+	private static final String SKIP_SCHEMA = "batch.launcher.skip-schema";
+
+	public static void main(String[] args) {
+		System.exit(run(args));
+	}
+
+	public static int run(String... args) {
+		StartupTimings timings = new StartupTimings();
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BatchApplication.class)
+			.web(WebApplicationType.NONE)
+			.initializers(BatchLauncherApplication::customize)
+			.run(args)) {
+			timings.contextReady();
+
+			String jobName = context.getEnvironment().getProperty(JOB_NAMES);
+			if (!StringUtils.hasText(jobName) || jobName.contains(",")) {
+				throw new IllegalArgumentException(JOB_NAMES + " must be a single job name: " + jobName);
+			}
+			BatchMetrics metrics = context.getBean(BatchMetrics.class);
+			if (metrics.isEnabled()) {
+				timings.record(metrics.getMeterRegistry());
+			}
+
+			timings.jobStarted();
+			Job job = context.getBean(jobName.trim(), Job.class);
+			JobExecution jobExecution = context.getBean(JobLauncher.class).run(job, jobParameters(args));
+			timings.jobFinished();
+
+			timings.report(job.getName(), context.getBeanFactory().getSingletonCount(),
+				context.getBeanFactory().getBeanDefinitionCount());
+			return jobExecution.getStatus() == BatchStatus.COMPLETED ? 0 : 1;
+		} catch (Exception e) {
+			log.error("failed to launch job", e);
+			return 1;
+		}
+	}
+
+	private static void customize(ConfigurableApplicationContext context) {
+		ConfigurableEnvironment environment = context.getEnvironment();
+		if (environment.getProperty(LAZY_INIT, Boolean.class, true)) {
+			context.addBeanFactoryPostProcessor(new LazyInitBeanFactoryPostProcessor());
+		}
+		if (environment.getProperty(SKIP_SCHEMA, Boolean.class, false)) {
+			// profile 설정보다 우선하지만 명령행 인자로는 다시 지정할 수 있도록 명령행 인자 바로 다음에 둔다.
+			Map<String, Object> properties = new HashMap<>();
+			properties.put("spring.jpa.hibernate.ddl-auto", "none");
+			properties.put("spring.batch.initialize-schema", "never");
+			MapPropertySource propertySource = new MapPropertySource("batchLauncher", properties);
+			MutablePropertySources propertySources = environment.getPropertySources();
+			if (propertySources.contains(CommandLinePropertySource.COMMAND_LINE_PROPERTY_SOURCE_NAME)) {
+				propertySources.addAfter(CommandLinePropertySource.COMMAND_LINE_PROPERTY_SOURCE_NAME, propertySource);
+			} else {
+				propertySources.addFirst(propertySource);
+			}
+		}
+	}
+
+	private static JobParameters jobParameters(String[] args) {
+		String[] parameters = Arrays.stream(args)
+			.filter(arg -> !arg.startsWith("--"))
+			.toArray(String[]::new);
+		return new DefaultJobParametersConverter().getJobParameters(StringUtils.splitArrayElementsIntoProperties(parameters, "="));
+	}
+}
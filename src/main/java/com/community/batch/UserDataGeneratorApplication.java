@@ -0,0 +1,22 @@
+package com.community.batch;
+
+import com.community.batch.generator.UserDataGenerator;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * 부하 테스트용 회원 데이터를 적재하는 entry point.
+ * 예) --generator.count=10000000 --generator.updated-date-skew=0.5 --generator.grade-weights.VIP=1
+ * (in-memory H2 는 프로세스가 끝나면 사라지므로 파일 DB나 외부 DB를 spring.datasource.* 로 지정해서 사용한다)
+ */
+public class UserDataGeneratorApplication {
+
+	public static void main(String[] args) throws Exception {
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BatchApplication.class)
+			.web(WebApplicationType.NONE)
+			.run(args)) {
+			context.getBean(UserDataGenerator.class).generate();
+		}
+	}
+}
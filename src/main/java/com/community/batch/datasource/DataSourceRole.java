@@ -0,0 +1,6 @@
+package com.community.batch.datasource;
+
+public enum DataSourceRole {
+	PRIMARY, // writer, job repository, 그 외 모든 조회 (기본)
+	REPLICA // reader 의 대량 조회
+}
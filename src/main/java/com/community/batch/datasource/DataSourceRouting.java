@@ -0,0 +1,35 @@
+package com.community.batch.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * 현재 스레드가 사용할 DataSource(primary, replica)를 정한다.
+ * RoutingDataSource 는 connection 을 얻는 시점의 값을 보므로, 조회가 connection 을 얻는 구간을 onReplica 로 감싼다.
+ * 지정하지 않은 스레드는 항상 primary 를 사용한다.
+ */
+public final class DataSourceRouting {
+
+	private static final ThreadLocal<DataSourceRole> CURRENT = new ThreadLocal<>();
+
+	private DataSourceRouting() {
+	}
+
+	public static DataSourceRole current() {
+		DataSourceRole role = CURRENT.get();
+		return role == null ? DataSourceRole.PRIMARY : role;
+	}
+
+	public static <T> T onReplica(Supplier<T> work) {
+		DataSourceRole previous = CURRENT.get();
+		CURRENT.set(DataSourceRole.REPLICA);
+		try {
+			return work.get();
+		} finally {
+			if (previous == null) {
+				CURRENT.remove();
+			} else {
+				CURRENT.set(previous);
+			}
+		}
+	}
+}
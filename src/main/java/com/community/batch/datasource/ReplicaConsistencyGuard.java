@@ -0,0 +1,58 @@
+package com.community.batch.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * reader 가 replica 에서 읽어도 되는지 확인한다. (read-your-writes)
+ * InactiveUserWatermarkListener 는 모드, 결과와 관계없이 실행이 끝나면 (휴면 전환이 commit 된 뒤) 그 job_execution_id 를
+ * inactive_user_watermark 에 기록하므로, replica 의 job_execution_id 가 primary 와 같으면 이전 실행의 변경도 replica 에 반영되어 있다.
+ * 다르거나 확인할 수 없으면 primary 에서 읽는다. 이전 실행이 한 번도 끝나지 않았으면 (양쪽 모두 없음) 반영할 변경도 없다.
+ * (replica 가 뒤처진 채로 읽으면 이미 휴면 전환된 회원이 다시 읽혀서 안내 발송 같은 처리가 중복된다)
+ * 같은 실행 안에서 writer 가 바꾼 row 는 reader 가 이미 지나간 key 이므로 다시 읽지 않는다.
+ */
+@Slf4j
+public class ReplicaConsistencyGuard {
+
+	private static final String WATERMARK_SQL = "select job_execution_id from inactive_user_watermark where job_name = ?";
+
+	private final JdbcTemplate primary;
+	private final JdbcTemplate replica;
+	private final boolean enabled;
+
+	public ReplicaConsistencyGuard(DataSource primary, DataSource replica, boolean enabled) {
+		this.primary = new JdbcTemplate(primary);
+		this.replica = new JdbcTemplate(replica);
+		this.enabled = enabled;
+	}
+
+	// enabled=false 이면 확인하지 않고 항상 replica 에서 읽는다.
+	public boolean isReplicaConsistent(String jobName) {
+		if (!enabled) {
+			return true;
+		}
+		try {
+			Long primaryMark = watermark(primary, jobName);
+			Long replicaMark = watermark(replica, jobName);
+			if (Objects.equals(primaryMark, replicaMark)) {
+				log.debug("replica is consistent with primary (watermark of {}: {})", jobName, primaryMark);
+				return true;
+			}
+			log.warn("replica is behind primary (watermark of {}: primary {}, replica {}). read from primary", jobName,
+				primaryMark, replicaMark);
+		} catch (DataAccessException e) {
+			log.warn("failed to check replica consistency of {}. read from primary", jobName, e);
+		}
+		return false;
+	}
+
+	private static Long watermark(JdbcTemplate jdbcTemplate, String jobName) {
+		List<Long> marks = jdbcTemplate.queryForList(WATERMARK_SQL, Long.class, jobName);
+		return marks.isEmpty() ? null : marks.get(0);
+	}
+}
@@ -0,0 +1,63 @@
+package com.community.batch.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+
+/**
+ * batch.datasource.replica.enabled=true 이면 primary, replica 두 개의 pool 을 만들고, 둘 중 하나로 보내는 RoutingDataSource 를 기본 DataSource 로 등록한다.
+ * - EntityManagerFactory, writer, job repository 등 기존에 DataSource 를 사용하던 곳은 모두 그대로 primary 를 사용한다.
+ * - reader(JpaKeysetPagingItemReader)는 페이지 조회를 DataSourceRouting.onReplica 안에서 실행하므로 replica pool 을 사용한다.
+ * pool 크기는 각각 spring.datasource.hikari.*, batch.datasource.replica.hikari.* 로 지정한다.
+ * (replica pool 은 reader 수(grid-size) + prefetch 스레드 수, primary pool 은 chunk transaction 수 정도가 필요하다)
+ */
+@Configuration
+@EnableConfigurationProperties(ReplicaDataSourceProperties.class)
+@ConditionalOnProperty(name = "batch.datasource.replica.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+		HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		dataSource.setPoolName("primary");
+		return dataSource;
+	}
+
+	@Bean
+	@ConfigurationProperties("batch.datasource.replica.hikari")
+	public HikariDataSource replicaDataSource(ReplicaDataSourceProperties properties) {
+		HikariDataSource dataSource = DataSourceBuilder.create()
+			.type(HikariDataSource.class)
+			.url(properties.getUrl())
+			.username(properties.getUsername())
+			.password(properties.getPassword())
+			.driverClassName(properties.getDriverClassName())
+			.build();
+		dataSource.setPoolName("replica");
+		dataSource.setReadOnly(true);
+		return dataSource;
+	}
+
+	@Bean
+	@Primary
+	public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+		@Qualifier("replicaDataSource") DataSource replicaDataSource) {
+		return new RoutingDataSource(primaryDataSource, replicaDataSource);
+	}
+
+	@Bean
+	public ReplicaConsistencyGuard replicaConsistencyGuard(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+		@Qualifier("replicaDataSource") DataSource replicaDataSource, ReplicaDataSourceProperties properties) {
+		return new ReplicaConsistencyGuard(primaryDataSource, replicaDataSource, properties.isConsistencyCheck());
+	}
+}
@@ -0,0 +1,28 @@
+package com.community.batch.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * reader 가 조회할 replica DB. pool 설정(maximum-pool-size 등)은 batch.datasource.replica.hikari.* 로 primary(spring.datasource.hikari.*)와 따로 지정한다.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "batch.datasource.replica")
+public class ReplicaDataSourceProperties {
+
+	// true 이면 reader 의 조회를 replica 로 보낸다.
+	private boolean enabled = false;
+
+	private String url;
+
+	private String username;
+
+	private String password;
+
+	private String driverClassName;
+
+	// replica 가 primary 를 따라잡았는지 확인할 수 없으면 primary 에서 읽는다. (read-your-writes)
+	private boolean consistencyCheck = true;
+}
@@ -0,0 +1,27 @@
+package com.community.batch.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * DataSourceRouting 의 값에 따라 primary 또는 replica pool 에서 connection 을 얻는 DataSource.
+ */
+public class RoutingDataSource extends AbstractRoutingDataSource {
+
+	public RoutingDataSource(DataSource primary, DataSource replica) {
+		Map<Object, Object> targets = new HashMap<>();
+		targets.put(DataSourceRole.PRIMARY, primary);
+		targets.put(DataSourceRole.REPLICA, replica);
+		setTargetDataSources(targets);
+		setDefaultTargetDataSource(primary);
+		afterPropertiesSet();
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		return DataSourceRouting.current();
+	}
+}
@@ -0,0 +1,39 @@
+package com.community.batch.domain;
+
+import com.community.batch.domain.enums.Grade;
+import com.community.batch.domain.enums.SocialType;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 휴면 전환에 필요한 컬럼만 조회하는 projection.
+ * User entity 전체(password, email, principal ...)를 읽어서 persistence context 에 올리지 않아도 되므로
+ * JDBC 전송량, heap 사용량, GC 부담이 줄어든다. (JPQL: select new ...InactiveUserCandidate(u.idx, u.grade, u.socialType, u.updatedDate))
+ * updatedDate 는 grade, socialType 별 휴면 기준(InactiveUserRuleTable)을 processor 에서 확인할 때 사용한다.
+ */
+@Getter
+@ToString
+public class InactiveUserCandidate implements Serializable {
+
+	private final Long idx;
+
+	private final Grade grade;
+
+	private final SocialType socialType;
+
+	private final LocalDateTime updatedDate;
+
+	public InactiveUserCandidate(Long idx, Grade grade, SocialType socialType) {
+		this(idx, grade, socialType, null);
+	}
+
+	public InactiveUserCandidate(Long idx, Grade grade, SocialType socialType, LocalDateTime updatedDate) {
+		this.idx = idx;
+		this.grade = grade;
+		this.socialType = socialType;
+		this.updatedDate = updatedDate;
+	}
+}
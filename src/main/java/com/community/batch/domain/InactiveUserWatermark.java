@@ -0,0 +1,47 @@
+package com.community.batch.domain;
+
+import lombok.Getter;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * incremental 모드의 high-water mark. job 마다 한 row 를 가진다.
+ * threshold 이전에 update 된 ACTIVE 회원은 이미 모두 휴면 전환되었으므로, 다음 실행은 threshold ~ (now - 1년) 구간만 조회한다.
+ */
+@Getter
+@Entity
+@Table(name = "inactive_user_watermark")
+public class InactiveUserWatermark implements Serializable {
+
+	@Id
+	private String jobName;
+
+	private LocalDateTime threshold;
+
+	private Long jobExecutionId;
+
+	private LocalDateTime updatedDate;
+
+	protected InactiveUserWatermark() {
+	}
+
+	public InactiveUserWatermark(String jobName) {
+		this.jobName = jobName;
+	}
+
+	public InactiveUserWatermark advance(LocalDateTime threshold, Long jobExecutionId) {
+		this.threshold = threshold;
+		return mark(jobExecutionId);
+	}
+
+	// threshold 는 그대로 두고 마지막으로 끝난 실행만 기록한다. (ReplicaConsistencyGuard 가 replica 와 비교한다)
+	public InactiveUserWatermark mark(Long jobExecutionId) {
+		this.jobExecutionId = jobExecutionId;
+		this.updatedDate = LocalDateTime.now();
+		return this;
+	}
+}
@@ -12,7 +12,12 @@ import java.time.LocalDateTime;
 @Getter
 @EqualsAndHashCode(of = { "idx", "email" })
 @Entity
-@Table
+@Table(indexes = {
+	// 휴면 전환 대상 조회 (status = ? and updated_date < ?) 후 idx 순으로 keyset paging
+	@Index(name = "idx_user_status_updated_date", columnList = "status, updated_date, idx"),
+	// grade 별 휴면 전환 대상 조회
+	@Index(name = "idx_user_status_grade_updated_date", columnList = "status, grade, updated_date, idx")
+})
 public class User implements Serializable {
 
 	@Id
@@ -38,6 +43,7 @@ public class User implements Serializable {
 
 	private LocalDateTime createdDate;
 
+	@Column(name = "updated_date") // index 의 columnList 에서 사용하는 이름과 맞추기 위해 명시한다.
 	private LocalDateTime updatedDate;
 
 	public User() {
@@ -56,8 +62,10 @@ public class User implements Serializable {
 		this.updatedDate = updatedDate;
 	}
 
+	// InactiveUserBulkUpdateWriter 와 같은 컬럼(status, updated_date)을 변경한다.
 	public User setInactive() {
 		status = UserStatus.INACTIVE;
+		updatedDate = LocalDateTime.now();
 		return this;
 	}
 }
@@ -1,19 +1,34 @@
 package com.community.batch.domain.enums;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public enum SocialType {
 	FACEBOOK("facebook"),
 	GOOGLE("google"),
 	KAKAO("kakao");
 
-	private final String ROLE_PREFIX = "ROLE_";
-	private String name;
+	private static final String ROLE_PREFIX = "ROLE_";
+
+	// authority 문자열 -> SocialType. 비교할 때마다 문자열을 만들지 않도록 미리 만들어 둔다.
+	private static final Map<String, SocialType> BY_ROLE_TYPE = new HashMap<>();
+
+	static {
+		for (SocialType socialType : values()) {
+			BY_ROLE_TYPE.put(socialType.roleType, socialType);
+		}
+	}
+
+	private final String name;
+	private final String roleType;
 
 	SocialType(String name) {
 		this.name = name;
+		this.roleType = ROLE_PREFIX + name.toUpperCase();
 	}
 
 	public String getRoleType() {
-		return ROLE_PREFIX + name.toUpperCase();
+		return roleType;
 	}
 
 	public String getValue() {
@@ -21,6 +36,11 @@ public enum SocialType {
 	}
 
 	public boolean isEquals(String authority) {
-		return this.getRoleType().equals(authority);
+		return roleType.equals(authority);
+	}
+
+	// authority 에 해당하는 SocialType. 없으면 null
+	public static SocialType fromRoleType(String authority) {
+		return authority == null ? null : BY_ROLE_TYPE.get(authority);
 	}
 }
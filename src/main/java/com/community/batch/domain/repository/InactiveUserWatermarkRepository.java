@@ -0,0 +1,7 @@
+package com.community.batch.domain.repository;
+
+import com.community.batch.domain.InactiveUserWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface InactiveUserWatermarkRepository extends JpaRepository<InactiveUserWatermark, String> {
+}
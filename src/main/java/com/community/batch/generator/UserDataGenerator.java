@@ -0,0 +1,163 @@
+package com.community.batch.generator;
+
+import com.community.batch.domain.enums.Grade;
+import com.community.batch.domain.enums.SocialType;
+import com.community.batch.domain.enums.UserStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * 부하 테스트용 회원 데이터를 생성한다.
+ * JPA를 거치지 않고 여러 row를 담은 INSERT 문을 JDBC batch 로 실행하므로 수백만 건도 빠르게 적재된다.
+ */
+@Slf4j
+public class UserDataGenerator {
+
+	private static final String INSERT_PREFIX = "insert into user"
+		+ " (idx, name, password, email, principal, social_type, status, grade, created_date, updated_date) values ";
+	private static final String ROW_PLACEHOLDER = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+	private final DataSource dataSource;
+	private final UserGeneratorProperties properties;
+
+	public UserDataGenerator(DataSource dataSource, UserGeneratorProperties properties) {
+		this.dataSource = dataSource;
+		this.properties = properties;
+	}
+
+	/**
+	 * @return 생성한 회원 수
+	 */
+	public long generate() throws SQLException {
+		SplittableRandom random = new SplittableRandom(properties.getSeed());
+		WeightedPicker<Grade> grades = new WeightedPicker<>(properties.getGradeWeights());
+		WeightedPicker<SocialType> socialTypes = new WeightedPicker<>(properties.getSocialTypeWeights());
+		WeightedPicker<UserStatus> statuses = new WeightedPicker<>(properties.getStatusWeights());
+
+		long count = properties.getCount();
+		int rowsPerStatement = (int) Math.min(properties.getRowsPerStatement(), Math.max(count, 1));
+		LocalDateTime now = LocalDateTime.now();
+		long started = System.currentTimeMillis();
+
+		Connection connection = DataSourceUtils.getConnection(dataSource);
+		boolean autoCommit = connection.getAutoCommit();
+		try (PreparedStatement fullStatement = connection.prepareStatement(insertSql(rowsPerStatement))) {
+			connection.setAutoCommit(false);
+			long idx = properties.getStartIdx();
+			long end = idx + count;
+			int statements = 0;
+			while (idx < end) {
+				int rows = (int) Math.min(rowsPerStatement, end - idx);
+				// 마지막 남은 row 수가 rowsPerStatement 보다 적으면 그 크기의 INSERT 문을 한 번만 실행한다. (null 이면 닫지 않는다)
+				try (PreparedStatement tailStatement = rows == rowsPerStatement ? null : connection.prepareStatement(insertSql(rows))) {
+					PreparedStatement statement = tailStatement == null ? fullStatement : tailStatement;
+					int parameterIndex = 1;
+					for (int i = 0; i < rows; i++, idx++) {
+						LocalDateTime updatedDate = now.minusDays(updatedDaysAgo(random));
+						Timestamp updated = Timestamp.valueOf(updatedDate);
+						statement.setLong(parameterIndex++, idx);
+						statement.setString(parameterIndex++, "user" + idx);
+						statement.setString(parameterIndex++, "password");
+						statement.setString(parameterIndex++, "user" + idx + "@test.com");
+						statement.setString(parameterIndex++, null);
+						statement.setString(parameterIndex++, socialTypes.pick(random).name());
+						statement.setString(parameterIndex++, statuses.pick(random).name());
+						statement.setString(parameterIndex++, grades.pick(random).name());
+						statement.setTimestamp(parameterIndex++, updated);
+						statement.setTimestamp(parameterIndex++, updated);
+					}
+					if (tailStatement == null) {
+						statement.addBatch();
+					} else {
+						statement.executeUpdate();
+					}
+				}
+				if (++statements % properties.getStatementsPerCommit() == 0 || idx >= end) {
+					fullStatement.executeBatch();
+					connection.commit();
+				}
+			}
+		} catch (SQLException | RuntimeException e) {
+			// 마지막 commit 이후에 실행한 INSERT 를 남기지 않는다. (autoCommit 을 되돌릴 때 commit 되는 것을 막는다)
+			rollback(connection, e);
+			throw e;
+		} finally {
+			connection.setAutoCommit(autoCommit);
+			DataSourceUtils.releaseConnection(connection, dataSource);
+		}
+
+		long elapsed = System.currentTimeMillis() - started;
+		log.info("generated {} users in {} ms ({} rows/s)", count, elapsed, elapsed == 0 ? count : count * 1000 / elapsed);
+		return count;
+	}
+
+	private static void rollback(Connection connection, Exception cause) {
+		try {
+			connection.rollback();
+		} catch (SQLException e) {
+			cause.addSuppressed(e);
+		}
+	}
+
+	private long updatedDaysAgo(SplittableRandom random) {
+		double skewed = Math.pow(random.nextDouble(), properties.getUpdatedDateSkew());
+		int minDays = properties.getUpdatedDateMinDays();
+		return minDays + (long) (skewed * (properties.getUpdatedDateMaxDays() - minDays));
+	}
+
+	private static String insertSql(int rows) {
+		StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + rows * (ROW_PLACEHOLDER.length() + 2));
+		sql.append(INSERT_PREFIX);
+		for (int i = 0; i < rows; i++) {
+			if (i > 0) {
+				sql.append(", ");
+			}
+			sql.append(ROW_PLACEHOLDER);
+		}
+		return sql.toString();
+	}
+
+	// 가중치에 따라 enum 값을 고른다. (누적 가중치 배열에서 선형 탐색, enum 값이 몇 개 되지 않으므로 충분하다)
+	private static class WeightedPicker<E extends Enum<E>> {
+
+		private final Object[] values;
+		private final int[] cumulative;
+		private final int total;
+
+		WeightedPicker(Map<E, Integer> weights) {
+			values = new Object[weights.size()];
+			cumulative = new int[weights.size()];
+			int sum = 0;
+			int i = 0;
+			for (Map.Entry<E, Integer> entry : weights.entrySet()) {
+				sum += entry.getValue();
+				values[i] = entry.getKey();
+				cumulative[i++] = sum;
+			}
+			if (sum <= 0) {
+				throw new IllegalArgumentException("weights must have a positive sum: " + weights);
+			}
+			total = sum;
+		}
+
+		@SuppressWarnings("unchecked")
+		E pick(SplittableRandom random) {
+			int r = random.nextInt(total);
+			for (int i = 0; i < cumulative.length; i++) {
+				if (r < cumulative[i]) {
+					return (E) values[i];
+				}
+			}
+			return (E) values[values.length - 1];
+		}
+	}
+}
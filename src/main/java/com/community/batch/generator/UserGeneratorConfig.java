@@ -0,0 +1,17 @@
+package com.community.batch.generator;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+@EnableConfigurationProperties(UserGeneratorProperties.class)
+public class UserGeneratorConfig {
+
+	@Bean
+	public UserDataGenerator userDataGenerator(DataSource dataSource, UserGeneratorProperties properties) {
+		return new UserDataGenerator(dataSource, properties);
+	}
+}
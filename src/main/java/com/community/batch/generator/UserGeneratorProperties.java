@@ -0,0 +1,54 @@
+package com.community.batch.generator;
+
+import com.community.batch.domain.enums.Grade;
+import com.community.batch.domain.enums.SocialType;
+import com.community.batch.domain.enums.UserStatus;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "generator")
+public class UserGeneratorProperties {
+
+	// 생성할 회원 수
+	private long count = 100_000;
+
+	// 첫 번째 회원의 idx. import.sql 의 데이터(1001 ~ 1011)와 겹치지 않도록 지정한다.
+	private long startIdx = 100_000;
+
+	// INSERT 한 문장에 담을 row 수 (insert into ... values (...), (...), ...)
+	private int rowsPerStatement = 1_000;
+
+	// 몇 문장 마다 commit 할지
+	private int statementsPerCommit = 10;
+
+	private long seed = 42L;
+
+	// 각 값이 선택될 비율(가중치)
+	private Map<Grade, Integer> gradeWeights = new EnumMap<>(Grade.class);
+	private Map<SocialType, Integer> socialTypeWeights = new EnumMap<>(SocialType.class);
+	private Map<UserStatus, Integer> statusWeights = new EnumMap<>(UserStatus.class);
+
+	// updatedDate는 현재로부터 updatedDateMinDays ~ updatedDateMaxDays 일 전 사이에서 정해진다.
+	private int updatedDateMinDays = 0;
+	private int updatedDateMaxDays = 365 * 3;
+
+	// 1 이면 균등 분포, 1 보다 크면 최근 날짜에 몰리고 1 보다 작으면 오래된 날짜에 몰린다. (days = maxDays * random ^ skew)
+	private double updatedDateSkew = 1.0;
+
+	public UserGeneratorProperties() {
+		gradeWeights.put(Grade.VIP, 1);
+		gradeWeights.put(Grade.GOLD, 3);
+		gradeWeights.put(Grade.FAMILY, 6);
+		socialTypeWeights.put(SocialType.FACEBOOK, 1);
+		socialTypeWeights.put(SocialType.GOOGLE, 1);
+		socialTypeWeights.put(SocialType.KAKAO, 1);
+		statusWeights.put(UserStatus.ACTIVE, 9);
+		statusWeights.put(UserStatus.INACTIVE, 1);
+	}
+}
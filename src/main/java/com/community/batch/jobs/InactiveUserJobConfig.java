@@ -1,37 +1,50 @@
 package com.community.batch.jobs;
 
-import com.community.batch.domain.User;
+import com.community.batch.datasource.ReplicaConsistencyGuard;
+import com.community.batch.domain.InactiveUserCandidate;
 import com.community.batch.domain.enums.UserStatus;
 import com.community.batch.domain.repository.UserRepository;
+import com.community.batch.jobs.listener.BatchMetrics;
 import com.community.batch.jobs.listener.InactiveChunkListener;
 import com.community.batch.jobs.listener.InactiveJobListener;
 import com.community.batch.jobs.listener.InactiveProcessListener;
+import com.community.batch.jobs.listener.InactiveReadListener;
 import com.community.batch.jobs.listener.InactiveStepListener;
+import com.community.batch.jobs.listener.InactiveUserWatermarkListener;
+import com.community.batch.jobs.listener.InactiveWriteListener;
+import com.community.batch.jobs.policy.AdaptiveChunkCompletionPolicy;
+import com.community.batch.jobs.processor.InactiveUserRuleCondition;
+import com.community.batch.jobs.processor.InactiveUserRuleProcessor;
+import com.community.batch.jobs.processor.InactiveUserRuleProperties;
+import com.community.batch.jobs.processor.InactiveUserRuleTable;
+import com.community.batch.jobs.readers.ConcurrentKeysetItemReader;
+import com.community.batch.jobs.readers.JpaKeysetPagingItemReader;
+import com.community.batch.jobs.writers.InactiveUserBulkUpdateWriter;
+import com.community.batch.jobs.writers.InactiveUserEntityWriter;
+import com.community.batch.jobs.writers.InactiveUserWriterMode;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.ChunkListener;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecutionListener;
 import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemWriter;
-import org.springframework.batch.item.ParseException;
-import org.springframework.batch.item.UnexpectedInputException;
 import org.springframework.batch.item.database.JpaItemWriter;
-import org.springframework.batch.item.database.JpaPagingItemReader;
-import org.springframework.batch.item.support.ListItemReader;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.core.task.TaskExecutor;
 
 import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 //@Configuration // InactiveUserPartitionJobConfig의 테스트를 위해 잠시 주석 처리함
@@ -41,126 +54,151 @@ import java.util.Map;
 @Slf4j
 public class InactiveUserJobConfig {
 
-	private final static int CHUNK_SIZE = 5;
-
 	private final EntityManagerFactory entityManagerFactory;
 	private final UserRepository userRepository;
-
-	public InactiveUserJobConfig(EntityManagerFactory entityManagerFactory, UserRepository userRepository) {
+	private final ItemWriter<InactiveUserCandidate> bulkUpdateWriter;
+	private final ItemWriter<InactiveUserCandidate> entityWriter;
+	private final InactiveUserWriterMode writerMode;
+	private final BatchMetrics metrics;
+	private final InactiveUserRuleProcessor ruleProcessor;
+	private final InactiveUserRuleTable rules;
+	private final InactiveUserRuleProperties ruleProperties;
+
+	public InactiveUserJobConfig(EntityManagerFactory entityManagerFactory, UserRepository userRepository, DataSource dataSource,
+		BatchMetrics metrics, InactiveUserRuleProcessor ruleProcessor, InactiveUserRuleTable rules,
+		InactiveUserRuleProperties ruleProperties,
+		@Value("${batch.inactive-user.writer-mode:BULK_UPDATE}") InactiveUserWriterMode writerMode) {
 		this.entityManagerFactory = entityManagerFactory;
 		this.userRepository = userRepository;
+		this.bulkUpdateWriter = new InactiveUserBulkUpdateWriter<>(dataSource, InactiveUserCandidate::getIdx);
+		this.entityWriter = new InactiveUserEntityWriter(userRepository, entityManagerFactory);
+		this.writerMode = writerMode;
+		this.metrics = metrics;
+		this.ruleProcessor = ruleProcessor;
+		this.rules = rules;
+		this.ruleProperties = ruleProperties;
 	}
 
 	@Bean
 	public Job inactiveUserJob(
 			JobBuilderFactory jobBuilderFactory, // JobBuilderFactory를 injection 받음
 			Step inactiveJobStep,
-			InactiveJobListener jobListener
+			InactiveJobListener jobListener,
+			InactiveUserWatermarkListener watermarkListener
 	) {
-		return jobBuilderFactory.get("inactiveUserJob") // jobBuilder 인스턴스를 생성
-			.preventRestart()                           // Job의 재실행을 막음
+		return jobBuilderFactory.get("inactiveUserJob") // jobBuilder 인스턴스를 생성 (재시작 가능)
 			.start(inactiveJobStep)						// inactiveJobStep을 실행하는 jobBuilder를 생성
 			.listener(jobListener)
+			.listener(watermarkListener) // 실행이 끝나면 job_execution_id 를 기록한다. (reader 의 ReplicaConsistencyGuard 가 비교한다)
 			.build();
 	}
 
 	@Bean
 	public Step inactiveJobStep(StepBuilderFactory stepBuilderFactory,
-			ListItemReader<User> inactiveUserReader,
+			ConcurrentKeysetItemReader<InactiveUserCandidate> inactiveUserReader,
 			InactiveStepListener stepListener,
 			InactiveChunkListener chunkListener,
+			InactiveReadListener readListener,
 			InactiveProcessListener processListener,
+			InactiveWriteListener writeListener,
+			AdaptiveChunkCompletionPolicy chunkCompletionPolicy,
 			TaskExecutor taskExecutor
 	) {
 		return stepBuilderFactory.get("inactiveUserStep") // StepBuilder를 생성
-			.<User, User> chunk(CHUNK_SIZE)             // chunk 단위로 처리(commit)할 item 정보를 지정. Input/Output의 타입을 명시
+			.<InactiveUserCandidate, InactiveUserCandidate> chunk(chunkCompletionPolicy)  // chunk 단위로 처리(commit)할 item 정보를 지정. commit 시간에 따라 chunk 크기를 조절한다
 			.reader(inactiveUserReader)
-			.processor(inactiveUserProcessor())
+			.processor(processListener.timed(inactiveUserProcessor()))
 			.writer(inactiveUserWriter())
+			.listener((StepExecutionListener) ruleProcessor) // 휴면 기준 cutoff 를 jobParameters 의 nowDate 로 계산한다.
 			.listener(stepListener)
 			.listener(chunkListener)
+			.listener(readListener)
 			.listener(processListener)
+			.listener(writeListener)
+			.listener((ChunkListener) chunkCompletionPolicy)
 			.taskExecutor(taskExecutor)
 			.throttleLimit(2)
 			.build();
 	}
 
-	// close() 호출시 에러가 발생하는데, close() 호출을를 막아준다.
-	// destroyMethod 값을 지정하지 않으면 기본적으로 자동 추정에 따라 close, shutdown 메소드를 호출한다.
-	@Bean(destroyMethod = "")
-	@StepScope
-	public JpaPagingItemReader<User> inactiveUserJpaReader() {
-		// JpaPagingItemReader는 read() 호출시 내부에서 페이지 단위로 진행하면서 item을 DB에서 읽어오게 된다.
-		// 하지만 이미 처리된(process & write) Page(chunk)는 조회 SQL의 조건에서 제외되는 경우가 많으므로
-		// 페이지 번호를 항상 0으로 가져오도록 하면 항상 정상적으로 동작하는 것이 보장된다.
-		JpaPagingItemReader<User> jpaPagingItemReader = new JpaPagingItemReader<User>() {
-			@Override
-			public int getPage() {
-				return 0;
-			}
-
-			// taskExecutor 와 throttleLimit의 조합으로 사용할 경우 read()를 synchronized 처리해 주어야 함
-			// 그렇지 않으면 여러 스레드가 read에 동시에 진입하여 같은 데이터를 읽어오는 상황이 발생함
-			@Override
-			public synchronized User read() throws Exception, UnexpectedInputException, ParseException {
-				return super.read();
-			}
-		};
-		String jpqlQuery = "select u from User as u where u.updatedDate < :updatedDate and u.status= :status";
-		jpaPagingItemReader.setQueryString(jpqlQuery); // JPQL 로 지정해야 한다.
-
-		Map<String, Object> map = new HashMap<>();
-		LocalDateTime now = LocalDateTime.now();
-		map.put("updatedDate", now.minusYears(1));
-		map.put("status", UserStatus.ACTIVE);
-
-		jpaPagingItemReader.setParameterValues(map);
-		jpaPagingItemReader.setEntityManagerFactory(entityManagerFactory);
-		jpaPagingItemReader.setPageSize(CHUNK_SIZE);
-		return jpaPagingItemReader;
-	}
-
 	// Step의 Scope에 따라 새로운 빈을 생성한다(각 Step이 실행될 때 마다 새로 빈을 만든다 -> 지연 생성됨)
 	// @StepScope는 proxyMode가 TARGET_CLASS로 되어 있기 때문에 반드시 구현된 반환 타입을 명시해야 한다(ItemReader 로 명시하면 안됨).
+	// User entity 전체가 아닌 휴면 전환에 필요한 컬럼(idx, grade, socialType, updatedDate)만 projection 으로 조회한다.
+	// grade, socialType 별 휴면 기준은 조건 하나로 compile 되므로 기준이 여러 개여도 한 번만 조회한다.
 	@StepScope
 	@Bean
-	public ListItemReader<User> inactiveUserReader(
-		@Value("#{jobParameters[nowDate]}") Date nowDate
+	public ConcurrentKeysetItemReader<InactiveUserCandidate> inactiveUserReader(
+		@Value("#{jobParameters[nowDate]}") Date nowDate,
+		@Value("${batch.inactive-user.page-size:100}") int pageSize,
+		ObjectProvider<ReplicaConsistencyGuard> replicaConsistencyGuard
 	) {
 		log.info("=======================> Date nowDate: {}", nowDate);
 		LocalDateTime now = LocalDateTime.ofInstant(nowDate.toInstant(), ZoneId.systemDefault());
 		log.info("=======================> jobParameters[nowDate]: {}", now);
-		List<User> oldUsers = userRepository.findByUpdatedDateBeforeAndStatus(now.minusYears(1), UserStatus.ACTIVE);
-		ListItemReader<User> userListItemReader = new ListItemReader<User>(oldUsers){
+		Map<String, Object> parameterValues = new HashMap<>();
+		parameterValues.put("status", UserStatus.ACTIVE);
+		String ruleCondition = new InactiveUserRuleCondition(rules, ruleProperties.getEvaluation(), now, null).toJpql("u", parameterValues);
+
+		JpaKeysetPagingItemReader<InactiveUserCandidate> reader = new JpaKeysetPagingItemReader<InactiveUserCandidate>() {
 			@Override
-			public synchronized User read() {
-				User user = super.read();
-				if (user != null) {
+			protected InactiveUserCandidate doRead() throws Exception {
+				InactiveUserCandidate user = super.doRead();
+				if (user != null && metrics.shouldLogItem()) { // metric 사용시에는 item 로그를 sampling 한다.
 					log.info("read: {}", user.getIdx());
 				}
 				return user;
 			}
 		};
-		return userListItemReader; // 배치에서 사용할 data를 조회해서 reader를 생성한다.
+		reader.setName("inactiveUserReader");
+		reader.setEntityManagerFactory(entityManagerFactory);
+		reader.setQueryString(readerQuery(ruleCondition));
+		reader.setParameterValues(parameterValues);
+		reader.setKeyExtractor(InactiveUserCandidate::getIdx);
+		reader.setPageSize(pageSize);
+		// multi-thread step 에서는 어떤 item 까지 commit 되었는지 보장할 수 없으므로 상태를 저장하지 않는다. (ConcurrentKeysetItemReader)
+		// 재시작시 처음 idx 부터 다시 조회하지만, status 조건 때문에 이미 전환된 row 는 읽히지 않는다.
+		// replica 를 사용하면 조회를 replica 로 보낸다. 단, replica 가 이전 실행의 변경을 아직 반영하지 못했으면 primary 에서 읽는다.
+		ReplicaConsistencyGuard guard = replicaConsistencyGuard.getIfAvailable();
+		reader.setReadFromReplica(guard != null && guard.isReplicaConsistent("inactiveUserJob"));
+		// worker 스레드들은 조회된 페이지의 item 을 lock 없이 나눠 읽고, 다음 페이지 조회만 한 스레드씩 한다.
+		return new ConcurrentKeysetItemReader<>(reader);
+	}
+
+	// multi-thread step reader 의 JPQL. 실행 계획 확인(InactiveUserQueryPlanChecker)에서도 같은 쿼리를 사용한다.
+	public static String readerQuery(String ruleCondition) {
+		return "select new com.community.batch.domain.InactiveUserCandidate(u.idx, u.grade, u.socialType, u.updatedDate)"
+			+ " from User as u"
+			+ " where u.idx > :lastKey and " + ruleCondition + " and u.status = :status"
+			+ " order by u.idx";
 	}
 
-	public ItemProcessor<User, User> inactiveUserProcessor() {
-		//return User::setInactive;
-		///*
-		return new ItemProcessor<User, User>() {
+	// status 변경은 writer 에서 idx 로 한 번에 수행하므로, processor는 전환 대상인 회원을 그대로 넘긴다.
+	public ItemProcessor<InactiveUserCandidate, InactiveUserCandidate> inactiveUserProcessor() {
+		return new ItemProcessor<InactiveUserCandidate, InactiveUserCandidate>() {
 			@Override
-			public User process(User user) throws Exception {
-				log.info("process: {}", user.getIdx());
-				return user.setInactive();
+			public InactiveUserCandidate process(InactiveUserCandidate user) throws Exception {
+				if (ruleProcessor.process(user) == null) {
+					return null; // grade, socialType 별 휴면 기준을 아직 넘지 않은 회원 (IN_JVM 모드)
+				}
+				if (metrics.shouldLogItem()) {
+					log.info("process: {}", user.getIdx());
+				}
+				return user;
 			}
 		};
-		//*/
 	}
 
-	public ItemWriter<User> inactiveUserWriter() {
+	public ItemWriter<InactiveUserCandidate> inactiveUserWriter() {
 		return users -> {
+			if (users.isEmpty()) {
+				return; // chunk 의 모든 item 이 processor 에서 걸러진 경우
+			}
 			log.info("write size: {}", users.size());
-			userRepository.saveAll(users); // users는 chunk 단위인 10 개씩 전달된다.
+			if (writerMode == InactiveUserWriterMode.BULK_UPDATE) {
+				bulkUpdateWriter.write(users); // chunk 당 한 번의 UPDATE 로 status를 변경한다.
+			} else {
+				entityWriter.write(users); // users는 chunk 단위로 전달된다.
+			}
 		};
 	}
 
@@ -170,9 +208,4 @@ public class InactiveUserJobConfig {
 //		jpaItemWriter.setEntityManagerFactory(entityManagerFactory);
 //		return jpaItemWriter;
 //	}
-
-	@Bean
-	public TaskExecutor taskExecutor() {
-		return new SimpleAsyncTaskExecutor("batch-task-executor");
-	}
 }
@@ -1,54 +1,119 @@
 package com.community.batch.jobs;
 
-import com.community.batch.domain.User;
+import com.community.batch.datasource.ReplicaConsistencyGuard;
+import com.community.batch.domain.InactiveUserCandidate;
 import com.community.batch.domain.enums.Grade;
 import com.community.batch.domain.enums.UserStatus;
 import com.community.batch.domain.repository.UserRepository;
+import com.community.batch.jobs.dedup.ProcessedIdRegistry;
+import com.community.batch.jobs.listener.BatchMetrics;
+import com.community.batch.jobs.listener.InactiveChunkListener;
 import com.community.batch.jobs.listener.InactiveJobListener;
-import com.community.batch.jobs.partitioner.InactiveUserPartitioner;
+import com.community.batch.jobs.listener.InactiveProcessListener;
+import com.community.batch.jobs.listener.InactiveReadListener;
+import com.community.batch.jobs.listener.InactiveStepListener;
+import com.community.batch.jobs.listener.InactiveUserWatermarkListener;
+import com.community.batch.jobs.listener.InactiveWriteListener;
+import com.community.batch.jobs.partitioner.InactiveUserRangePartitioner;
+import com.community.batch.jobs.partitioner.PartitionSchedulingProperties;
+import com.community.batch.jobs.partitioner.WeightedPartitionHandler;
+import com.community.batch.jobs.policy.AdaptiveChunkCompletionPolicy;
+import com.community.batch.jobs.policy.AdaptiveChunkProperties;
+import com.community.batch.jobs.processor.InactiveUserRuleCondition;
+import com.community.batch.jobs.processor.InactiveUserRuleProcessor;
+import com.community.batch.jobs.processor.InactiveUserRuleProperties;
+import com.community.batch.jobs.processor.InactiveUserRuleTable;
+import com.community.batch.jobs.processor.InactiveUserSideEffectProcessor;
+import com.community.batch.jobs.readers.JpaKeysetPagingItemReader;
+import com.community.batch.jobs.writers.InactiveUserArchiveWriter;
+import com.community.batch.jobs.writers.InactiveUserBulkUpdateWriter;
+import com.community.batch.jobs.writers.InactiveUserEntityWriter;
+import com.community.batch.jobs.writers.InactiveUserWriterMode;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.ChunkListener;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecutionListener;
 import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.JobScope;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.partition.PartitionHandler;
+import org.springframework.batch.core.step.builder.AbstractTaskletStepBuilder;
 import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.integration.async.AsyncItemProcessor;
+import org.springframework.batch.integration.async.AsyncItemWriter;
 import org.springframework.batch.item.ItemWriter;
-import org.springframework.batch.item.support.ListItemReader;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
+@EnableConfigurationProperties(PartitionSchedulingProperties.class)
 @Slf4j
 public class InactiveUserPartitionJobConfig {
 
-	private final static int CHUNK_SIZE = 5;
-
 	private final EntityManagerFactory entityManagerFactory;
 	private final UserRepository userRepository;
+	private final DataSource dataSource;
+	private final ItemWriter<InactiveUserCandidate> bulkUpdateWriter;
+	private final ItemWriter<InactiveUserCandidate> entityWriter;
+	private final InactiveUserWriterMode writerMode;
+	private final BatchMetrics metrics;
+	private final ProcessedIdRegistry processedIds;
+	private final long simulatedDelayMs;
+	private final InactiveUserSideEffectProcessor sideEffectProcessor;
+	private final InactiveUserRuleProcessor ruleProcessor;
+	private final InactiveUserRuleTable rules;
+	private final InactiveUserRuleProperties ruleProperties;
 
-	public InactiveUserPartitionJobConfig(EntityManagerFactory entityManagerFactory, UserRepository userRepository) {
+	public InactiveUserPartitionJobConfig(EntityManagerFactory entityManagerFactory, UserRepository userRepository, DataSource dataSource,
+		BatchMetrics metrics, ProcessedIdRegistry processedIds, InactiveUserSideEffectProcessor sideEffectProcessor,
+		InactiveUserRuleProcessor ruleProcessor, InactiveUserRuleTable rules,
+		InactiveUserRuleProperties ruleProperties,
+		@Value("${batch.inactive-user.writer-mode:BULK_UPDATE}") InactiveUserWriterMode writerMode,
+		@Value("${batch.inactive-user.simulated-delay-ms:100}") long simulatedDelayMs) {
 		this.entityManagerFactory = entityManagerFactory;
 		this.userRepository = userRepository;
+		this.dataSource = dataSource;
+		this.bulkUpdateWriter = new InactiveUserBulkUpdateWriter<>(dataSource, InactiveUserCandidate::getIdx);
+		this.entityWriter = new InactiveUserEntityWriter(userRepository, entityManagerFactory);
+		this.writerMode = writerMode;
+		this.metrics = metrics;
+		this.processedIds = processedIds;
+		this.simulatedDelayMs = simulatedDelayMs;
+		this.sideEffectProcessor = sideEffectProcessor;
+		this.ruleProcessor = ruleProcessor;
+		this.rules = rules;
+		this.ruleProperties = ruleProperties;
 	}
 
 	@Bean
 	public Job inactiveUserPartitionJob(
 			JobBuilderFactory jobBuilderFactory,
 			InactiveJobListener jobListener,
+			InactiveUserWatermarkListener watermarkListener,
 			Step partitionerStep
 	) {
+		// 재시작 가능: 같은 JobParameters 로 다시 실행하면 COMPLETED 된 partition 은 건너뛰고,
+		// 나머지 partition 은 ExecutionContext 에 저장된 마지막 idx 다음부터 읽는다.
 		return jobBuilderFactory.get("inactiveUserPartitionJob")
-			.preventRestart()
 			.listener(jobListener)
+			.listener(processedIds)
+			.listener(watermarkListener) // 이번 실행의 대상 updatedDate 구간을 정하고, 완료되면 high-water mark 를 기록한다.
 			.start(partitionerStep)
 			.build();
 	}
@@ -57,77 +122,243 @@ public class InactiveUserPartitionJobConfig {
 	@JobScope
 	public Step partitionerStep(StepBuilderFactory stepBuilderFactory,
 		Step inactiveJobStep,
-		TaskExecutor taskExecutor
+		TaskExecutor taskExecutor,
+		ObjectProvider<PartitionHandler> remotePartitionHandler,
+		PartitionSchedulingProperties schedulingProperties,
+		@Value("${batch.inactive-user.grid-size:0}") int gridSize,
+		@Value("${batch.inactive-user.partition-mode:RANGE}") InactiveUserRangePartitioner.Mode partitionMode,
+		@Value("#{jobExecutionContext[referenceTime]}") Long referenceTime,
+		@Value("#{jobExecutionContext[previousReferenceTime]}") Long previousReferenceTime
 	) {
+		// gridSize를 지정하지 않으면 사용 가능한 core 수 만큼 idx 범위를 나눈다.
+		if (gridSize <= 0) {
+			gridSize = Runtime.getRuntime().availableProcessors();
+		}
+		// grade, socialType 별 휴면 기준을 조건 하나로 compile 해서 나눈다.
+		// previousReferenceTime 이 있으면(incremental 모드) 이전 실행 이후 새로 기준을 넘은 회원만 나눈다.
+		InactiveUserRangePartitioner partitioner = new InactiveUserRangePartitioner(dataSource,
+			ruleCondition(referenceTime, previousReferenceTime), partitionMode);
+		partitioner.setSubRangesPerWorker(schedulingProperties.getSubRangesPerWorker());
+
+		// batch.remote.manager=true 이면 partition 을 로컬 스레드 대신 message queue 를 통해 worker JVM 들에게 보낸다.
+		PartitionHandler partitionHandler = remotePartitionHandler.getIfAvailable();
+		if (partitionHandler != null) {
+			return stepBuilderFactory.get("partitionerStep")
+				.partitioner("partitionerStep", partitioner)
+				.partitionHandler(partitionHandler)
+				.build();
+		}
+
+		// 예상 row 수가 큰 partition 부터 (GRADE 모드에서는 우선순위가 높은 grade 부터) taskExecutor 에 넘긴다.
+		WeightedPartitionHandler weightedPartitionHandler = new WeightedPartitionHandler(schedulingProperties.getGradePriority());
+		weightedPartitionHandler.setStep(inactiveJobStep);
+		weightedPartitionHandler.setTaskExecutor(taskExecutor);
+		weightedPartitionHandler.setGridSize(gridSize);
+		if (taskExecutor instanceof ThreadPoolTaskExecutor
+			&& ((ThreadPoolTaskExecutor) taskExecutor).getCorePoolSize() < gridSize) {
+			log.warn("task executor core pool size({}) is smaller than grid size({}). partitions will not all run concurrently",
+				((ThreadPoolTaskExecutor) taskExecutor).getCorePoolSize(), gridSize);
+		}
+
 		return stepBuilderFactory.get("partitionerStep")
-			.partitioner("partitionerStep", new InactiveUserPartitioner())
-			.gridSize(5)
-			.step(inactiveJobStep)
-			.taskExecutor(taskExecutor)
+			.partitioner("partitionerStep", partitioner)
+			.partitionHandler(weightedPartitionHandler)
 			.build();
 	}
 
 	@Bean
 	public Step inactiveJobStep(StepBuilderFactory stepBuilderFactory,
-			ListItemReader<User> inactiveUserReader
+			JpaKeysetPagingItemReader<InactiveUserCandidate> inactiveUserReader,
+			AdaptiveChunkCompletionPolicy chunkCompletionPolicy,
+			InactiveStepListener stepListener,
+			InactiveChunkListener chunkListener,
+			InactiveReadListener readListener,
+			InactiveProcessListener processListener,
+			InactiveWriteListener writeListener,
+			InactiveUserArchiveWriter inactiveUserArchiveWriter,
+			@Qualifier("pipelineTaskExecutor") TaskExecutor pipelineTaskExecutor,
+			@Value("${batch.inactive-user.pipeline.worker-count:0}") int workerCount,
+			@Value("${batch.inactive-user.archive.enabled:false}") boolean archiveEnabled
 	) {
-		return stepBuilderFactory.get("inactiveUserStep")
-			.<User, User> chunk(CHUNK_SIZE)
+		// archive 를 사용하면 status 변경 후 같은 chunk 에서 파일에도 기록하고, 파일 offset 을 step 의 ExecutionContext 에 함께 저장한다.
+		InactiveUserArchiveWriter archiveWriter = archiveEnabled ? inactiveUserArchiveWriter : null;
+
+		// pipeline 모드: chunk 내의 item들을 worker 스레드들이 동시에 process 하고, writer는 결과(Future)를 모아서 한 번에 write 한다.
+		// process 는 안내 발송, 정보 보관 같은 I/O 대기가 대부분이므로 chunk 지연이 item 지연의 합이 아니라 가장 느린 item 에 가까워진다.
+		// AsyncItemWriter 는 chunk 순서대로 Future 를 꺼내고, process 중 발생한 예외를 다시 던지므로 순서와 rollback 동작은 순차 처리와 같다.
+		// write는 기존과 같이 chunk의 transaction 안에서 실행되므로 commit/rollback 단위와 재시작 위치는 그대로 유지된다.
+		if (workerCount > 0) {
+			AsyncItemProcessor<InactiveUserCandidate, InactiveUserCandidate> asyncProcessor = new AsyncItemProcessor<>();
+			asyncProcessor.setDelegate(processListener.timed(inactiveUserProcessor())); // worker 스레드에서의 처리 시간을 기록한다.
+			asyncProcessor.setTaskExecutor(pipelineTaskExecutor);
+			AsyncItemWriter<InactiveUserCandidate> asyncWriter = new AsyncItemWriter<>();
+			asyncWriter.setDelegate(inactiveUserWriter(archiveWriter));
+
+			return withArchive(stepBuilderFactory.get("inactiveUserStep")
+				.<InactiveUserCandidate, Future<InactiveUserCandidate>> chunk(chunkCompletionPolicy)
+				.reader(inactiveUserReader)
+				.processor(asyncProcessor)
+				.writer(asyncWriter)
+				.listener((ChunkListener) chunkCompletionPolicy)
+				.listener((StepExecutionListener) ruleProcessor) // 휴면 기준 cutoff 를 job 의 기준 시각으로 계산한다.
+				.listener(stepListener)
+				.listener(chunkListener)
+				.listener(readListener)
+				.listener(processListener)
+				.listener(writeListener), archiveWriter)
+				.build();
+		}
+
+		return withArchive(stepBuilderFactory.get("inactiveUserStep")
+			.<InactiveUserCandidate, InactiveUserCandidate> chunk(chunkCompletionPolicy) // commit 시간에 따라 chunk 크기를 조절한다.
 			.reader(inactiveUserReader)
-			.processor(inactiveUserProcessor())
-			.writer(inactiveUserWriter())
+			.processor(processListener.timed(inactiveUserProcessor()))
+			.writer(inactiveUserWriter(archiveWriter))
+			.listener((ChunkListener) chunkCompletionPolicy)
+			.listener((StepExecutionListener) ruleProcessor)
+			.listener(stepListener)
+			.listener(chunkListener)
+			.listener(readListener)
+			.listener(processListener)
+			.listener(writeListener), archiveWriter)
 			.build();
 	}
 
+	// AsyncItemWriter 는 ItemStream 이 아니므로 archive writer 를 step 의 stream 으로 직접 등록한다. (open/update/close)
+	private static <B extends AbstractTaskletStepBuilder<B>> B withArchive(B builder, InactiveUserArchiveWriter archiveWriter) {
+		return archiveWriter == null ? builder : builder.stream(archiveWriter);
+	}
+
+	// 재시작한 실행이 기준 시각을 기록하기 전에 시작되었으면 지금 시각을 사용한다.
+	private InactiveUserRuleCondition ruleCondition(Long referenceTime, Long previousReferenceTime) {
+		return new InactiveUserRuleCondition(rules, ruleProperties.getEvaluation(),
+			referenceTime == null ? LocalDateTime.now() : InactiveUserRangePartitioner.fromEpochMilli(referenceTime),
+			previousReferenceTime == null ? null : InactiveUserRangePartitioner.fromEpochMilli(previousReferenceTime));
+	}
+
+	// 전체 대상을 List로 미리 조회하지 않고, idx 기준으로 pageSize 만큼씩 나누어 조회한다.
+	// User entity 전체가 아닌 휴면 전환에 필요한 컬럼(idx, grade, socialType, updatedDate)만 projection 으로 조회한다.
 	@StepScope
 	@Bean
-	public ListItemReader<User> inactiveUserReader(
+	public JpaKeysetPagingItemReader<InactiveUserCandidate> inactiveUserReader(
+		@Value("#{stepExecutionContext[minIdx]}") Long minIdx,
+		@Value("#{stepExecutionContext[maxIdx]}") Long maxIdx,
+		@Value("#{stepExecutionContext[referenceTime]}") Long referenceTime,
+		@Value("#{stepExecutionContext[previousReferenceTime]}") Long previousReferenceTime,
 		@Value("#{stepExecutionContext[grade]}") String grade,
-		UserRepository userRepository
+		@Value("${batch.inactive-user.page-size:100}") int pageSize,
+		@Value("${batch.inactive-user.pipeline.prefetch-pages:0}") int prefetchPages,
+		@Value("#{stepExecution.jobExecution.jobInstance.jobName}") String jobName,
+		ObjectProvider<ReplicaConsistencyGuard> replicaConsistencyGuard
 	) {
-		log.warn("create reader bean (GRADE: {})", grade);
-		List<User> oldUsers = userRepository.findByUpdatedDateBeforeAndStatusAndGrade(
-			LocalDateTime.now().minusYears(1), UserStatus.ACTIVE, Grade.valueOf(grade)
-		);
-		return new ListItemReader<User>(oldUsers) {
+		log.warn("create reader bean (idx: {} ~ {}, grade: {})", minIdx, maxIdx, grade);
+		Map<String, Object> parameterValues = new HashMap<>();
+		parameterValues.put("maxIdx", maxIdx);
+		parameterValues.put("status", UserStatus.ACTIVE);
+		// partitioner 와 같은 기준 시각으로 compile 하므로 partition 을 나눌 때와 같은 row 를 읽는다.
+		String ruleCondition = ruleCondition(referenceTime, previousReferenceTime).toJpql("u", parameterValues);
+		if (grade != null) { // GRADE 모드의 partition 은 idx 범위 안에서도 해당 grade 만 읽는다.
+			parameterValues.put("grade", Grade.valueOf(grade));
+		}
+
+		JpaKeysetPagingItemReader<InactiveUserCandidate> reader = new JpaKeysetPagingItemReader<InactiveUserCandidate>() {
 			@Override
-			public User read() {
-				User user = super.read();
+			protected InactiveUserCandidate doRead() throws Exception {
+				InactiveUserCandidate user = super.doRead();
 				if (user != null) {
 					delay100ms();
+				}
+				if (user != null && metrics.shouldLogItem()) { // metric 사용시에는 item 로그를 sampling 한다.
 					log.info("read: {} - grade.{}", user.getIdx(), user.getGrade());
 				}
 				return user;
 			}
 		};
+		reader.setName("inactiveUserReader");
+		reader.setEntityManagerFactory(entityManagerFactory);
+		reader.setQueryString(readerQuery(ruleCondition, grade != null));
+		reader.setParameterValues(parameterValues);
+		reader.setKeyExtractor(InactiveUserCandidate::getIdx);
+		reader.setPageSize(pageSize);
+		reader.setPrefetchPages(prefetchPages); // process/write 하는 동안 다음 페이지들을 미리 조회한다.
+		reader.setStartKey(minIdx - 1); // key > startKey 이므로 minIdx 부터 읽는다.
+		// replica 를 사용하면 조회를 replica 로 보낸다. 단, replica 가 이전 실행의 변경을 아직 반영하지 못했으면 primary 에서 읽는다.
+		ReplicaConsistencyGuard guard = replicaConsistencyGuard.getIfAvailable();
+		reader.setReadFromReplica(guard != null && guard.isReplicaConsistent(jobName));
+		return reader;
 	}
 
+	// partition reader 의 JPQL. 실행 계획 확인(InactiveUserQueryPlanChecker)에서도 같은 쿼리를 사용한다.
+	public static String readerQuery(String ruleCondition, boolean byGrade) {
+		return "select new com.community.batch.domain.InactiveUserCandidate(u.idx, u.grade, u.socialType, u.updatedDate)"
+			+ " from User as u"
+			+ " where u.idx > :lastKey and u.idx <= :maxIdx and " + ruleCondition + " and u.status = :status"
+			+ (byGrade ? " and u.grade = :grade" : "")
+			+ " order by u.idx";
+	}
+
+	// pipeline 모드에서 item을 process 하는 worker 스레드. queue가 가득 차면 chunk를 처리하는 스레드가 직접 process 한다.
+	@Bean
+	public ThreadPoolTaskExecutor pipelineTaskExecutor(
+		@Value("${batch.inactive-user.pipeline.worker-count:0}") int workerCount,
+		AdaptiveChunkProperties chunkProperties
+	) {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(Math.max(workerCount, 1));
+		executor.setMaxPoolSize(Math.max(workerCount, 1));
+		executor.setQueueCapacity(chunkProperties.getMaxSize());
+		executor.setThreadNamePrefix("batch-pipeline-");
+		executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+		executor.setWaitForTasksToCompleteOnShutdown(true);
+		return executor;
+	}
+
+	// read/process/write 마다 외부 호출 등의 지연을 흉내낸다. (benchmark 에서는 0으로 지정)
 	private void delay100ms() {
+		if (simulatedDelayMs <= 0) {
+			return;
+		}
 		try {
-			Thread.sleep(100);
+			Thread.sleep(simulatedDelayMs);
 		} catch (InterruptedException e) {
 			e.printStackTrace();
 		}
 	}
 
-	public ItemProcessor<User, User> inactiveUserProcessor() {
+	// status 변경은 writer 에서 idx 로 한 번에 수행하므로, processor는 안내 발송, 정보 보관 후 전환 대상인 회원을 그대로 넘긴다.
+	public ItemProcessor<InactiveUserCandidate, InactiveUserCandidate> inactiveUserProcessor() {
 		return user -> {
-			delay100ms();
-			log.info("process: {} - grade.{}", user.getIdx(), user.getGrade());
-			return user.setInactive();
+			if (ruleProcessor.process(user) == null) {
+				return null; // grade, socialType 별 휴면 기준을 아직 넘지 않은 회원 (IN_JVM 모드. PUSH_DOWN 모드에서는 reader 가 이미 걸렀다)
+			}
+			// 이전 실행에서 휴면 전환된 뒤 다시 ACTIVE 가 된 회원은 다시 전환하지만, 이미 보관된 회원 정보는 다시 보관하지 않는다.
+			boolean archived = processedIds.isEnabled() && processedIds.isArchived(user.getIdx());
+			sideEffectProcessor.process(user, !archived);
+			if (metrics.shouldLogItem()) {
+				log.info("process: {} - grade.{}", user.getIdx(), user.getGrade());
+			}
+			return user;
 		};
 	}
 
-	public ItemWriter<User> inactiveUserWriter() {
+	public ItemWriter<InactiveUserCandidate> inactiveUserWriter(InactiveUserArchiveWriter archiveWriter) {
 		return users -> {
+			if (users.isEmpty()) {
+				return; // IN_JVM 모드에서 chunk 의 모든 item 이 걸러지면 빈 chunk 가 전달된다. (AsyncItemWriter 도 그대로 넘긴다)
+			}
 			delay100ms();
 			log.info("write size: {}, grade.{}", users.size(), users.get(0).getGrade());
-			userRepository.saveAll(users);
+			if (writerMode == InactiveUserWriterMode.BULK_UPDATE) {
+				bulkUpdateWriter.write(users); // chunk 당 한 번의 UPDATE 로 status를 변경한다.
+			} else {
+				entityWriter.write(users);
+			}
+			if (archiveWriter != null) {
+				archiveWriter.write(users); // 파일 기록이 실패하면 chunk 가 rollback 되어 status 도 변경되지 않는다.
+			}
+			if (processedIds.isEnabled()) {
+				processedIds.markArchivedAfterCommit(users); // idx 범위는 지금 확인하고, chunk 가 commit 된 뒤에 기록한다.
+			}
 		};
 	}
-
-	@Bean
-	public TaskExecutor taskExecutor() {
-		return new SimpleAsyncTaskExecutor("batch-task-executor");
-	}
 }
@@ -0,0 +1,153 @@
+package com.community.batch.jobs.dedup;
+
+import java.io.IOException;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 0 ~ 2^32-1 범위의 id 를 bit 하나로 기록하는 set. (Set&lt;Long&gt; 은 id 하나에 수십 byte, 이 bitmap 은 1 bit)
+ * - id 범위를 2^16 개씩 page 로 나누고, id 가 들어온 page 만 8KB 배열을 할당한다. (5천만 개의 연속된 idx 기준 약 6MB)
+ * - add 는 page 할당, bit 설정 모두 CAS 로 처리하므로 여러 worker 스레드가 lock 없이 동시에 기록할 수 있다.
+ * - save/load 는 memory-mapped file 을 통해 page 단위로 기록/복원한다.
+ */
+public class ConcurrentLongBitmap {
+
+	public static final long MAX_ID = (1L << 32) - 1;
+
+	private static final int PAGE_BITS = 16;
+	private static final int WORDS_PER_PAGE = (1 << PAGE_BITS) / Long.SIZE;
+	private static final int PAGE_COUNT = 1 << (32 - PAGE_BITS);
+	private static final int FILE_MAGIC = 0x49445331; // "IDS1"
+	private static final int HEADER_BYTES = Integer.BYTES * 2;
+	private static final int PAGE_BYTES = Integer.BYTES + WORDS_PER_PAGE * Long.BYTES;
+
+	private final AtomicReferenceArray<AtomicLongArray> pages = new AtomicReferenceArray<>(PAGE_COUNT);
+	private final AtomicLong size = new AtomicLong();
+
+	/**
+	 * @return id 가 새로 추가되었으면 true, 이미 있었으면 false
+	 */
+	public boolean add(long id) {
+		checkRange(id);
+		AtomicLongArray page = pageFor(id);
+		int word = wordIndex(id);
+		long mask = 1L << id; // shift 는 하위 6 bit 만 사용한다.
+		long current;
+		do {
+			current = page.get(word);
+			if ((current & mask) != 0) {
+				return false;
+			}
+		} while (!page.compareAndSet(word, current, current | mask));
+		size.incrementAndGet();
+		return true;
+	}
+
+	public boolean contains(long id) {
+		if (id < 0 || id > MAX_ID) {
+			return false;
+		}
+		AtomicLongArray page = pages.get((int) (id >>> PAGE_BITS));
+		return page != null && (page.get(wordIndex(id)) & (1L << id)) != 0;
+	}
+
+	public long size() {
+		return size.get();
+	}
+
+	private AtomicLongArray pageFor(long id) {
+		int index = (int) (id >>> PAGE_BITS);
+		AtomicLongArray page = pages.get(index);
+		if (page != null) {
+			return page;
+		}
+		AtomicLongArray created = new AtomicLongArray(WORDS_PER_PAGE);
+		return pages.compareAndSet(index, null, created) ? created : pages.get(index); // 먼저 할당한 스레드의 page 를 사용한다.
+	}
+
+	private static int wordIndex(long id) {
+		return (int) (id & ((1 << PAGE_BITS) - 1)) >>> 6;
+	}
+
+	// id 가 [0, MAX_ID] 범위가 아니면 IllegalArgumentException
+	public static void checkRange(long id) {
+		if (id < 0 || id > MAX_ID) {
+			throw new IllegalArgumentException("id out of range [0, " + MAX_ID + "]: " + id);
+		}
+	}
+
+	/**
+	 * 할당된 page 만 [page index][word * 1024] 형식으로 기록한다.
+	 * 임시 파일에 쓴 뒤 교체하므로 기록 도중 종료되어도 이전 파일이 남는다.
+	 * (add 와 동시에 호출하면 그 사이에 추가된 id 는 빠질 수 있으므로 job 이 끝난 뒤에 호출한다)
+	 */
+	public void save(Path file) throws IOException {
+		int pageCount = 0;
+		for (int i = 0; i < PAGE_COUNT; i++) {
+			if (pages.get(i) != null) {
+				pageCount++;
+			}
+		}
+		Path target = file.toAbsolutePath();
+		Files.createDirectories(target.getParent());
+		Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+		try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+			StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+				HEADER_BYTES + (long) pageCount * PAGE_BYTES);
+			buffer.putInt(FILE_MAGIC).putInt(pageCount);
+			for (int i = 0; i < PAGE_COUNT; i++) {
+				AtomicLongArray page = pages.get(i);
+				if (page == null) {
+					continue;
+				}
+				buffer.putInt(i);
+				for (int w = 0; w < WORDS_PER_PAGE; w++) {
+					buffer.putLong(page.get(w));
+				}
+			}
+			buffer.force();
+		}
+		Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * save 로 기록한 파일을 읽는다. 파일이 없으면 빈 bitmap 을 반환한다.
+	 */
+	public static ConcurrentLongBitmap load(Path file) throws IOException {
+		ConcurrentLongBitmap bitmap = new ConcurrentLongBitmap();
+		if (!Files.exists(file)) {
+			return bitmap;
+		}
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != FILE_MAGIC) {
+				throw new IOException("not an id bitmap file: " + file);
+			}
+			int pageCount = buffer.getInt();
+			long total = 0;
+			for (int p = 0; p < pageCount; p++) {
+				int index = buffer.getInt();
+				LongBuffer words = buffer.asLongBuffer();
+				AtomicLongArray page = new AtomicLongArray(WORDS_PER_PAGE);
+				for (int w = 0; w < WORDS_PER_PAGE; w++) {
+					long word = words.get(w);
+					page.set(w, word);
+					total += Long.bitCount(word);
+				}
+				buffer.position(buffer.position() + WORDS_PER_PAGE * Long.BYTES);
+				bitmap.pages.set(index, page);
+			}
+			bitmap.size.set(total);
+		}
+		return bitmap;
+	}
+}
@@ -0,0 +1,17 @@
+package com.community.batch.jobs.dedup;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "batch.inactive-user.dedup")
+public class ProcessedIdProperties {
+
+	// true 이면 휴면 전환된 회원 idx 를 job 별 파일에 기록하고, 이전 실행에서 정보를 보관한 회원은 다시 보관하지 않는다.
+	private boolean enabled = false;
+
+	// job 별 bitmap 파일({jobName}.bin)을 두는 디렉토리
+	private String directory = "build/dedup";
+}
@@ -0,0 +1,123 @@
+package com.community.batch.jobs.dedup;
+
+import com.community.batch.domain.InactiveUserCandidate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 휴면 전환(정보 보관)이 commit 된 회원 idx 를 job 별 ConcurrentLongBitmap 에 기록하고, 다음 실행에서 이어서 사용한다.
+ * - beforeJob: {directory}/{jobName}.bin 을 memory-mapped file 로 읽어서 이 job execution 의 bitmap 으로 사용한다.
+ *   bitmap 은 job execution 마다 따로 두므로 동시에 실행되는 job 이 서로의 기록을 덮어쓰지 않는다.
+ * - writer 가 markArchivedAfterCommit 으로 chunk 의 idx 를 넘기면, idx 범위는 바로 확인하고(범위를 벗어나면 chunk 가 rollback 된다)
+ *   chunk transaction 이 commit 된 뒤에 기록한다. rollback 된 chunk 의 회원은 기록되지 않는다.
+ * - afterJob: 종료 상태와 관계없이 파일로 저장한다. (commit 된 idx 만 있으므로 실패한 실행의 기록도 사실과 같다)
+ * 이미 INACTIVE 인 회원은 조회 조건(status = ACTIVE)에서 빠지므로, bitmap 에 있는 회원이 다시 읽히는 것은 그 사이 다시 ACTIVE 가 된 경우다.
+ * 이런 회원도 다시 휴면 전환하고, 이미 보관된 회원 정보만 다시 보관하지 않는다. (isArchived)
+ * 같은 job 을 동시에 두 번 실행하면 나중에 끝난 실행의 파일이 남는다.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(ProcessedIdProperties.class)
+public class ProcessedIdRegistry implements JobExecutionListener {
+
+	private final ProcessedIdProperties properties;
+	private final Map<Long, ConcurrentLongBitmap> archived = new ConcurrentHashMap<>(); // job execution id -> bitmap
+
+	public ProcessedIdRegistry(ProcessedIdProperties properties) {
+		this.properties = properties;
+	}
+
+	public boolean isEnabled() {
+		return properties.isEnabled();
+	}
+
+	/**
+	 * @return 현재 step 의 job 에서 (이전 실행을 포함해) 이미 휴면 전환과 정보 보관이 commit 된 idx 이면 true
+	 */
+	public boolean isArchived(long idx) {
+		ConcurrentLongBitmap bitmap = current();
+		return bitmap != null && bitmap.contains(idx);
+	}
+
+	/**
+	 * 현재 transaction 이 commit 되면 users 의 idx 를 기록한다. transaction 밖에서 호출하면 바로 기록한다.
+	 * @throws IllegalArgumentException bitmap 에 기록할 수 없는 idx 가 있는 경우 (commit 전에 던지므로 chunk 가 rollback 된다)
+	 */
+	public void markArchivedAfterCommit(List<? extends InactiveUserCandidate> users) {
+		users.forEach(user -> ConcurrentLongBitmap.checkRange(user.getIdx()));
+		ConcurrentLongBitmap bitmap = current();
+		if (bitmap == null) {
+			return; // beforeJob 이 호출되지 않은 실행 (다른 프로세스의 remote worker 등)
+		}
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			users.forEach(user -> bitmap.add(user.getIdx()));
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public void afterCommit() {
+				users.forEach(user -> bitmap.add(user.getIdx()));
+			}
+		});
+	}
+
+	public long size(JobExecution jobExecution) {
+		ConcurrentLongBitmap bitmap = archived.get(jobExecution.getId());
+		return bitmap == null ? 0 : bitmap.size();
+	}
+
+	@Override
+	public void beforeJob(JobExecution jobExecution) {
+		if (!properties.isEnabled()) {
+			return;
+		}
+		Path file = file(jobExecution);
+		try {
+			ConcurrentLongBitmap bitmap = ConcurrentLongBitmap.load(file);
+			archived.put(jobExecution.getId(), bitmap);
+			log.info("archived ids loaded: {} <- {}", bitmap.size(), file);
+		} catch (IOException e) {
+			throw new UncheckedIOException("failed to load archived ids from " + file, e);
+		}
+	}
+
+	@Override
+	public void afterJob(JobExecution jobExecution) {
+		ConcurrentLongBitmap bitmap = archived.remove(jobExecution.getId());
+		if (bitmap == null) {
+			return;
+		}
+		Path file = file(jobExecution);
+		try {
+			bitmap.save(file);
+			log.info("archived ids saved: {} -> {} ({})", bitmap.size(), file, jobExecution.getStatus());
+		} catch (IOException e) {
+			log.warn("failed to save archived ids to {}", file, e);
+		}
+	}
+
+	// step 을 실행하는 스레드(chunk 스레드, AsyncItemProcessor worker 스레드)에는 StepSynchronizationManager 에 step 이 등록되어 있다.
+	private ConcurrentLongBitmap current() {
+		StepContext context = StepSynchronizationManager.getContext();
+		return context == null ? null : archived.get(context.getStepExecution().getJobExecutionId());
+	}
+
+	private Path file(JobExecution jobExecution) {
+		return Paths.get(properties.getDirectory(), jobExecution.getJobInstance().getJobName() + ".bin");
+	}
+}
@@ -0,0 +1,116 @@
+package com.community.batch.jobs.executor;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * partitionerStep, multi-thread step 에서 공통으로 사용하는 TaskExecutor.
+ * SimpleAsyncTaskExecutor는 task 마다 새로운 스레드를 만들기 때문에 pool 크기와 queue가 제한된 executor로 대체한다.
+ */
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(BatchTaskExecutorProperties.class)
+public class BatchTaskExecutorConfig {
+
+	private final BatchTaskExecutorProperties properties;
+
+	public BatchTaskExecutorConfig(BatchTaskExecutorProperties properties) {
+		this.properties = properties;
+	}
+
+	// 용도별 executor(pipelineTaskExecutor 등)가 추가로 등록되더라도 기본으로 주입되도록 @Primary로 지정한다.
+	@Bean
+	@Primary
+	public TaskExecutor taskExecutor() {
+		if (properties.getMode() == BatchTaskExecutorProperties.Mode.VIRTUAL) {
+			ExecutorService virtualThreadExecutor = newVirtualThreadExecutor(properties.getThreadNamePrefix());
+			if (virtualThreadExecutor != null) {
+				return new VirtualThreadTaskExecutor(virtualThreadExecutor, properties.getAwaitTerminationSeconds());
+			}
+			log.warn("virtual thread is not supported on this JDK. fallback to POOLED task executor");
+		}
+
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		// ThreadPoolExecutor 는 queue 가 가득 찬 뒤에야 core 이상으로 스레드를 늘리므로
+		// partition 이 동시에 실행되는 수는 사실상 corePoolSize 이다.
+		executor.setCorePoolSize(properties.resolveCorePoolSize());
+		executor.setMaxPoolSize(properties.resolveMaxPoolSize());
+		executor.setQueueCapacity(properties.getQueueCapacity());
+		executor.setKeepAliveSeconds(properties.getKeepAliveSeconds());
+		executor.setThreadNamePrefix(properties.getThreadNamePrefix());
+		executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+		executor.setWaitForTasksToCompleteOnShutdown(true);
+		executor.setAwaitTerminationSeconds(properties.getAwaitTerminationSeconds());
+		return executor;
+	}
+
+	@Bean
+	public MeterBinder taskExecutorMetrics(TaskExecutor taskExecutor) {
+		return registry -> {
+			if (!(taskExecutor instanceof ThreadPoolTaskExecutor)) {
+				return;
+			}
+			ThreadPoolTaskExecutor executor = (ThreadPoolTaskExecutor) taskExecutor;
+			Gauge.builder("batch.task-executor.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+				.description("실행중인 스레드 수")
+				.register(registry);
+			Gauge.builder("batch.task-executor.pool.size", executor, ThreadPoolTaskExecutor::getPoolSize)
+				.register(registry);
+			Gauge.builder("batch.task-executor.queue.size", executor, e -> e.getThreadPoolExecutor().getQueue().size())
+				.description("실행을 기다리는 task 수")
+				.register(registry);
+			Gauge.builder("batch.task-executor.completed", executor, e -> e.getThreadPoolExecutor().getCompletedTaskCount())
+				.register(registry);
+		};
+	}
+
+	// JDK 21 이상에서만 제공되는 API이므로 reflection으로 생성한다. 지원하지 않으면 null을 반환한다.
+	private static ExecutorService newVirtualThreadExecutor(String threadNamePrefix) {
+		try {
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+			builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, threadNamePrefix, 0L);
+			ThreadFactory threadFactory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+			return (ExecutorService) Executors.class
+				.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+				.invoke(null, threadFactory);
+		} catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
+
+	static class VirtualThreadTaskExecutor extends ConcurrentTaskExecutor implements DisposableBean {
+
+		private final ExecutorService executorService;
+		private final int awaitTerminationSeconds;
+
+		VirtualThreadTaskExecutor(ExecutorService executorService, int awaitTerminationSeconds) {
+			super(executorService);
+			this.executorService = executorService;
+			this.awaitTerminationSeconds = awaitTerminationSeconds;
+		}
+
+		@Override
+		public void destroy() throws InterruptedException {
+			executorService.shutdown();
+			if (!executorService.awaitTermination(awaitTerminationSeconds, TimeUnit.SECONDS)) {
+				executorService.shutdownNow();
+			}
+		}
+	}
+}
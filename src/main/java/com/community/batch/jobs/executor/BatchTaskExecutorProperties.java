@@ -0,0 +1,43 @@
+package com.community.batch.jobs.executor;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "batch.task-executor")
+public class BatchTaskExecutorProperties {
+
+	public enum Mode {
+		POOLED,  // ThreadPoolTaskExecutor (queue 없이 maxPoolSize 까지 + CallerRunsPolicy)
+		VIRTUAL  // JDK 21 이상의 virtual thread. 지원하지 않는 JDK에서는 POOLED로 동작한다.
+	}
+
+	private Mode mode = Mode.POOLED;
+
+	// 0 이하: 사용 가능한 core 수 (batch.inactive-user.grid-size 의 기본값과 같다)
+	private int corePoolSize = 0;
+
+	// 0 이하 또는 corePoolSize 보다 작으면 corePoolSize 와 같다.
+	private int maxPoolSize = 0;
+
+	// 0 이면 queue 없이(SynchronousQueue) maxPoolSize 까지 스레드를 늘리고, 모두 사용중이면 제출한 스레드가 직접 실행한다(CallerRunsPolicy).
+	// 0 보다 크면 queue 가 가득 찰 때 까지 corePoolSize 만큼만 실행되고 maxPoolSize 는 그 뒤에야 적용된다.
+	private int queueCapacity = 0;
+
+	private int keepAliveSeconds = 60;
+
+	private String threadNamePrefix = "batch-task-executor-";
+
+	// 종료시 실행중인 chunk가 끝날 때 까지 기다리는 최대 시간
+	private int awaitTerminationSeconds = 60;
+
+	public int resolveCorePoolSize() {
+		return corePoolSize > 0 ? corePoolSize : Runtime.getRuntime().availableProcessors();
+	}
+
+	public int resolveMaxPoolSize() {
+		return Math.max(maxPoolSize, resolveCorePoolSize());
+	}
+}
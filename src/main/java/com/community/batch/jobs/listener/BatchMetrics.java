@@ -0,0 +1,134 @@
+package com.community.batch.jobs.listener;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * listener 들이 공통으로 사용하는 metric 저장소.
+ * - item 마다 호출되는 경로에서 tag 생성, registry 조회 비용이 들지 않도록 step 별 Timer를 캐시해 둔다.
+ * - step(partition) 별 진행 상황(write 건수, items/sec)을 gauge 로 노출한다.
+ */
+@Component
+@EnableConfigurationProperties(BatchMetricsProperties.class)
+public class BatchMetrics {
+
+	private static final String UNKNOWN_STEP = "unknown";
+
+	private final MeterRegistry meterRegistry;
+	private final BatchMetricsProperties properties;
+	private final Map<String, Map<String, Timer>> timers = new ConcurrentHashMap<>(); // step -> (name -> Timer)
+	private final Map<String, StepProgress> progresses = new ConcurrentHashMap<>();
+	private final AtomicLong itemLogCounter = new AtomicLong();
+
+	public BatchMetrics(MeterRegistry meterRegistry, BatchMetricsProperties properties) {
+		this.meterRegistry = meterRegistry;
+		this.properties = properties;
+	}
+
+	public boolean isEnabled() {
+		return properties.isEnabled();
+	}
+
+	public MeterRegistry getMeterRegistry() {
+		return meterRegistry;
+	}
+
+	public BatchMetricsProperties getProperties() {
+		return properties;
+	}
+
+	// metric을 사용하지 않으면 모든 item을, 사용하면 itemLogSampleRate 건 마다 한 번 로그를 남긴다.
+	public boolean shouldLogItem() {
+		if (!properties.isEnabled()) {
+			return true;
+		}
+		long sampleRate = properties.getItemLogSampleRate();
+		return sampleRate > 0 && itemLogCounter.incrementAndGet() % sampleRate == 0;
+	}
+
+	public Timer timer(String name, String stepName) {
+		Map<String, Timer> stepTimers = timers.get(stepName);
+		Timer timer = stepTimers == null ? null : stepTimers.get(name);
+		if (timer != null) { // 대부분의 호출은 여기서 끝나므로 lambda, 문자열 생성이 일어나지 않는다.
+			return timer;
+		}
+		return timers.computeIfAbsent(stepName, key -> new ConcurrentHashMap<>())
+			.computeIfAbsent(name, key -> Timer.builder(name)
+				.tag("step", stepName)
+				.publishPercentileHistogram()
+				.register(meterRegistry));
+	}
+
+	public void record(String name, long startNanos) {
+		timer(name, currentStepName()).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+	}
+
+	public String currentStepName() {
+		StepContext context = StepSynchronizationManager.getContext();
+		return context == null ? UNKNOWN_STEP : context.getStepName();
+	}
+
+	public void stepStarted(StepExecution stepExecution) {
+		StepProgress progress = progresses.computeIfAbsent(stepExecution.getStepName(), stepName -> {
+			StepProgress created = new StepProgress();
+			Gauge.builder("batch.step.progress", created, p -> p.written.get())
+				.description("step(partition) 별 write 된 item 수")
+				.tag("step", stepName)
+				.register(meterRegistry);
+			Gauge.builder("batch.step.items.per.second", created, StepProgress::itemsPerSecond)
+				.tag("step", stepName)
+				.register(meterRegistry);
+			return created;
+		});
+		progress.start();
+	}
+
+	public void chunkCommitted(StepExecution stepExecution) {
+		StepProgress progress = progresses.get(stepExecution.getStepName());
+		if (progress != null) {
+			progress.written.set(stepExecution.getWriteCount());
+		}
+	}
+
+	public void stepFinished(StepExecution stepExecution) {
+		chunkCommitted(stepExecution);
+		StepProgress progress = progresses.get(stepExecution.getStepName());
+		if (progress != null) {
+			progress.finish();
+		}
+	}
+
+	private static class StepProgress {
+
+		private final AtomicLong written = new AtomicLong();
+		private volatile long startNanos;
+		private volatile long endNanos;
+
+		void start() {
+			written.set(0);
+			startNanos = System.nanoTime();
+			endNanos = 0;
+		}
+
+		void finish() {
+			endNanos = System.nanoTime();
+		}
+
+		double itemsPerSecond() {
+			long end = endNanos == 0 ? System.nanoTime() : endNanos;
+			double seconds = (end - startNanos) / 1_000_000_000.0;
+			return seconds <= 0 ? 0 : written.get() / seconds;
+		}
+	}
+}
@@ -0,0 +1,20 @@
+package com.community.batch.jobs.listener;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "batch.metrics")
+public class BatchMetricsProperties {
+
+	// false 이면 metric을 남기지 않고, 기존처럼 item 마다 로그를 남긴다.
+	private boolean enabled = true;
+
+	// metric 사용시 item 로그를 몇 건 마다 한 번 남길지 (0: 남기지 않음)
+	private long itemLogSampleRate = 0;
+
+	// job 종료시 Prometheus text format 으로 metric을 기록할 파일 (node_exporter textfile collector 등에서 수집). 비어 있으면 기록하지 않는다.
+	private String exportFile;
+}
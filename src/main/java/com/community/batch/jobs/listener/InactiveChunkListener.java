@@ -8,18 +8,43 @@ import org.springframework.stereotype.Component;
 @Slf4j
 @Component
 public class InactiveChunkListener implements ChunkListener {
+
+	// multi-thread step 에서는 여러 스레드가 동시에 chunk를 처리하므로 시작 시간을 스레드 별로 보관한다.
+	private final ThreadLocal<long[]> chunkStart = ThreadLocal.withInitial(() -> new long[1]);
+
+	private final BatchMetrics metrics;
+
+	public InactiveChunkListener(BatchMetrics metrics) {
+		this.metrics = metrics;
+	}
+
 	@Override
 	public void beforeChunk(ChunkContext context) {
-		log.warn("Before Chunk");
+		if (!metrics.isEnabled()) {
+			log.warn("Before Chunk");
+			return;
+		}
+		chunkStart.get()[0] = System.nanoTime();
 	}
 
+	// chunk 의 read ~ commit 까지 걸린 시간을 기록한다.
 	@Override
 	public void afterChunk(ChunkContext context) {
-		log.warn("After Chunk");
+		if (!metrics.isEnabled()) {
+			log.warn("After Chunk");
+			return;
+		}
+		long[] start = chunkStart.get();
+		if (start[0] != 0) {
+			metrics.record("batch.chunk.commit", start[0]);
+			start[0] = 0;
+		}
+		metrics.chunkCommitted(context.getStepContext().getStepExecution());
 	}
 
 	@Override
 	public void afterChunkError(ChunkContext context) {
-		log.warn("After Chunk Error");
+		log.warn("After Chunk Error: {}", context.getStepContext().getStepName());
+		chunkStart.get()[0] = 0;
 	}
 }
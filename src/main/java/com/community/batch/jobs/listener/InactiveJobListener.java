@@ -1,20 +1,68 @@
 package com.community.batch.jobs.listener;
 
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Component
 public class InactiveJobListener implements JobExecutionListener {
+
+	private final BatchMetrics metrics;
+	private final ObjectProvider<PrometheusMeterRegistry> prometheusMeterRegistry;
+
+	public InactiveJobListener(BatchMetrics metrics, ObjectProvider<PrometheusMeterRegistry> prometheusMeterRegistry) {
+		this.metrics = metrics;
+		this.prometheusMeterRegistry = prometheusMeterRegistry;
+	}
+
 	@Override
 	public void beforeJob(JobExecution jobExecution) {
-		log.warn("Before Job");
+		log.info("Before Job: {}", jobExecution.getJobInstance().getJobName());
 	}
 
 	@Override
 	public void afterJob(JobExecution jobExecution) {
-		log.warn("After Job");
+		log.info("After Job: {} ({})", jobExecution.getJobInstance().getJobName(), jobExecution.getStatus());
+		if (!metrics.isEnabled() || jobExecution.getStartTime() == null || jobExecution.getEndTime() == null) {
+			return;
+		}
+		Timer.builder("batch.job")
+			.tag("job", jobExecution.getJobInstance().getJobName())
+			.tag("status", jobExecution.getStatus().name())
+			.register(metrics.getMeterRegistry())
+			.record(jobExecution.getEndTime().getTime() - jobExecution.getStartTime().getTime(), TimeUnit.MILLISECONDS);
+		exportToFile();
+	}
+
+	// 임시 파일에 쓴 뒤 교체하므로 수집기가 쓰는 도중의 파일을 읽지 않는다.
+	private void exportToFile() {
+		String exportFile = metrics.getProperties().getExportFile();
+		PrometheusMeterRegistry registry = prometheusMeterRegistry.getIfAvailable();
+		if (!StringUtils.hasText(exportFile) || registry == null) {
+			return;
+		}
+		try {
+			Path target = Paths.get(exportFile).toAbsolutePath();
+			Files.createDirectories(target.getParent());
+			Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+			Files.write(temp, registry.scrape().getBytes(StandardCharsets.UTF_8));
+			Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			log.warn("failed to export metrics to {}", exportFile, e);
+		}
 	}
 }
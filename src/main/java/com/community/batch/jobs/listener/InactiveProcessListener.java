@@ -1,26 +1,55 @@
 package com.community.batch.jobs.listener;
 
-import com.community.batch.domain.User;
+import com.community.batch.domain.InactiveUserCandidate;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.item.ItemProcessor;
 import org.springframework.stereotype.Component;
 
+/**
+ * 처리 결과(O)는 사용하지 않으므로 Object 로 받는다. (pipeline 모드에서는 Future<InactiveUserCandidate>가 전달된다)
+ * process 시간(batch.item.process)은 timed() 로 감싼 processor 에서 기록한다.
+ * pipeline 모드에서 beforeProcess ~ afterProcess 는 AsyncItemProcessor 가 worker 에 item 을 넘기는 시간일 뿐이기 때문이다.
+ */
 @Slf4j
 @Component
-public class InactiveProcessListener implements ItemProcessListener<User, User> {
+public class InactiveProcessListener implements ItemProcessListener<InactiveUserCandidate, Object> {
+
+	private final BatchMetrics metrics;
+
+	public InactiveProcessListener(BatchMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	// delegate 의 process 시간을 item 을 실제로 처리하는 스레드(pipeline 모드에서는 worker 스레드)에서 기록한다.
+	public ItemProcessor<InactiveUserCandidate, InactiveUserCandidate> timed(
+		ItemProcessor<InactiveUserCandidate, InactiveUserCandidate> delegate) {
+		return user -> {
+			if (!metrics.isEnabled()) {
+				return delegate.process(user);
+			}
+			long start = System.nanoTime();
+			try {
+				return delegate.process(user);
+			} finally {
+				metrics.record("batch.item.process", start);
+			}
+		};
+	}
 
 	@Override
-	public void beforeProcess(User user) {
-		log.warn("Before Process: user {}", user.getIdx());
+	public void beforeProcess(InactiveUserCandidate user) {
+		if (metrics.shouldLogItem()) {
+			log.warn("Before Process: user {}", user.getIdx());
+		}
 	}
 
 	@Override
-	public void afterProcess(User input, User output) {
-		log.warn("After Process: user {} -> {}", input.getIdx(), output.getIdx());
+	public void afterProcess(InactiveUserCandidate input, Object output) {
 	}
 
 	@Override
-	public void onProcessError(User user, Exception e) {
-		log.warn("onProcessError()");
+	public void onProcessError(InactiveUserCandidate user, Exception e) {
+		log.warn("onProcessError(): user {}", user.getIdx(), e);
 	}
 }
@@ -0,0 +1,37 @@
+package com.community.batch.jobs.listener;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+public class InactiveReadListener implements ItemReadListener<Object> {
+
+	private final ThreadLocal<long[]> readStart = ThreadLocal.withInitial(() -> new long[1]);
+
+	private final BatchMetrics metrics;
+
+	public InactiveReadListener(BatchMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	@Override
+	public void beforeRead() {
+		if (metrics.isEnabled()) {
+			readStart.get()[0] = System.nanoTime();
+		}
+	}
+
+	@Override
+	public void afterRead(Object item) {
+		if (metrics.isEnabled()) {
+			metrics.record("batch.item.read", readStart.get()[0]);
+		}
+	}
+
+	@Override
+	public void onReadError(Exception e) {
+		log.warn("onReadError()", e);
+	}
+}
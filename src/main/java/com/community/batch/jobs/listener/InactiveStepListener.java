@@ -6,19 +6,31 @@ import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.StepExecutionListener;
 import org.springframework.stereotype.Component;
 
-import static org.springframework.batch.core.ExitStatus.COMPLETED;
-
 @Slf4j
 @Component
 public class InactiveStepListener implements StepExecutionListener {
+
+	private final BatchMetrics metrics;
+
+	public InactiveStepListener(BatchMetrics metrics) {
+		this.metrics = metrics;
+	}
+
 	@Override
 	public void beforeStep(StepExecution stepExecution) {
-		log.warn("Before Step");
+		log.info("Before Step: {}", stepExecution.getStepName());
+		if (metrics.isEnabled()) {
+			metrics.stepStarted(stepExecution);
+		}
 	}
 
 	@Override
 	public ExitStatus afterStep(StepExecution stepExecution) {
-		log.warn("After Step");
+		log.info("After Step: {} (read: {}, write: {}, filter: {}, skip: {})", stepExecution.getStepName(),
+			stepExecution.getReadCount(), stepExecution.getWriteCount(), stepExecution.getFilterCount(), stepExecution.getSkipCount());
+		if (metrics.isEnabled()) {
+			metrics.stepFinished(stepExecution);
+		}
 		return ExitStatus.COMPLETED;
 	}
 }
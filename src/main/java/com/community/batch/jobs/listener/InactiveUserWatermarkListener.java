@@ -0,0 +1,89 @@
+package com.community.batch.jobs.listener;
+
+import com.community.batch.domain.InactiveUserWatermark;
+import com.community.batch.domain.repository.InactiveUserWatermarkRepository;
+import com.community.batch.jobs.processor.InactiveUserRuleTable;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+import static com.community.batch.jobs.partitioner.InactiveUserRangePartitioner.KEY_PREVIOUS_REFERENCE_TIME;
+import static com.community.batch.jobs.partitioner.InactiveUserRangePartitioner.KEY_REFERENCE_TIME;
+import static com.community.batch.jobs.partitioner.InactiveUserRangePartitioner.KEY_UPDATED_DATE_FROM;
+import static com.community.batch.jobs.partitioner.InactiveUserRangePartitioner.KEY_UPDATED_DATE_TO;
+import static com.community.batch.jobs.partitioner.InactiveUserRangePartitioner.fromEpochMilli;
+import static com.community.batch.jobs.partitioner.InactiveUserRangePartitioner.toEpochMilli;
+
+/**
+ * job 시작시 이번 실행의 대상 구간(updatedDateFrom ~ updatedDateTo)을 정해서 job 의 ExecutionContext 에 저장한다.
+ * - referenceTime: now. partitioner, reader, processor 가 grade, socialType 별 휴면 기준(cutoff)을 같은 시각으로 계산한다.
+ * - updatedDateTo: 가장 짧은 휴면 기준의 cutoff (기본 now - 1년). 재시작시에는 이전 실행에서 정한 구간을 그대로 사용한다.
+ * - updatedDateFrom: incremental 모드이고 이전에 COMPLETED 된 실행이 있으면 그 실행의 updatedDateTo (high-water mark)
+ * - previousReferenceTime: high-water mark 에 가장 짧은 기준을 더한 시각. 조회 조건은 이 시각에 대한 칸별 cutoff 중 가장 이른 시각부터 읽는다.
+ * incremental 모드에서 job 이 COMPLETED 로 끝나면 updatedDateTo 를 다음 실행의 시작점으로 기록한다.
+ * 모드, 결과와 관계없이 마지막으로 끝난 job_execution_id 를 기록하므로 ReplicaConsistencyGuard 는 항상 이전 실행과 비교할 수 있다.
+ */
+@Slf4j
+@Component
+public class InactiveUserWatermarkListener implements JobExecutionListener {
+
+	private final InactiveUserWatermarkRepository watermarkRepository;
+	private final JobRepository jobRepository;
+	private final InactiveUserRuleTable rules;
+	private final boolean incremental;
+
+	public InactiveUserWatermarkListener(InactiveUserWatermarkRepository watermarkRepository, JobRepository jobRepository,
+		InactiveUserRuleTable rules, @Value("${batch.inactive-user.incremental:false}") boolean incremental) {
+		this.watermarkRepository = watermarkRepository;
+		this.jobRepository = jobRepository;
+		this.rules = rules;
+		this.incremental = incremental;
+	}
+
+	@Override
+	public void beforeJob(JobExecution jobExecution) {
+		ExecutionContext executionContext = jobExecution.getExecutionContext();
+		if (executionContext.containsKey(KEY_UPDATED_DATE_TO)) {
+			return; // 재시작: 이미 나누어 둔 partition 과 같은 구간을 사용해야 한다.
+		}
+		LocalDateTime now = LocalDateTime.now();
+		InactiveUserRuleTable.Cutoffs cutoffs = rules.cutoffs(now);
+		LocalDateTime updatedDateTo = cutoffs.latest();
+		executionContext.putLong(KEY_REFERENCE_TIME, toEpochMilli(now));
+		executionContext.putLong(KEY_UPDATED_DATE_TO, toEpochMilli(updatedDateTo));
+		if (incremental) {
+			watermarkRepository.findById(jobExecution.getJobInstance().getJobName())
+				.map(InactiveUserWatermark::getThreshold)
+				.filter(threshold -> threshold.isBefore(updatedDateTo))
+				.ifPresent(threshold -> {
+					executionContext.putLong(KEY_UPDATED_DATE_FROM, toEpochMilli(threshold));
+					// 월말 등에서 날짜가 당겨지면 실제 이전 기준 시각보다 이르게 계산되므로 조회 범위가 넓어지기만 한다.
+					executionContext.putLong(KEY_PREVIOUS_REFERENCE_TIME, toEpochMilli(threshold.plus(cutoffs.shortestRetention())));
+				});
+		}
+		// 첫 step 이 끝나기 전에 중단되어도 재시작시 같은 구간을 사용하도록 바로 저장한다. (remote worker 도 여기서 읽는다)
+		jobRepository.updateExecutionContext(jobExecution);
+		log.info("inactive user window: {} ~ {}", executionContext.containsKey(KEY_UPDATED_DATE_FROM)
+			? fromEpochMilli(executionContext.getLong(KEY_UPDATED_DATE_FROM)) : "-", updatedDateTo);
+	}
+
+	@Override
+	public void afterJob(JobExecution jobExecution) {
+		ExecutionContext executionContext = jobExecution.getExecutionContext();
+		String jobName = jobExecution.getJobInstance().getJobName();
+		InactiveUserWatermark watermark = watermarkRepository.findById(jobName).orElseGet(() -> new InactiveUserWatermark(jobName));
+		if (incremental && jobExecution.getStatus() == BatchStatus.COMPLETED && executionContext.containsKey(KEY_UPDATED_DATE_TO)) {
+			watermarkRepository.save(watermark.advance(fromEpochMilli(executionContext.getLong(KEY_UPDATED_DATE_TO)), jobExecution.getId()));
+			return;
+		}
+		// incremental 모드가 아니거나 실패한 실행도 commit 한 chunk 가 있을 수 있으므로 job_execution_id 는 남긴다.
+		watermarkRepository.save(watermark.mark(jobExecution.getId()));
+	}
+}
@@ -0,0 +1,39 @@
+package com.community.batch.jobs.listener;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Slf4j
+@Component
+public class InactiveWriteListener implements ItemWriteListener<Object> {
+
+	private final ThreadLocal<long[]> writeStart = ThreadLocal.withInitial(() -> new long[1]);
+
+	private final BatchMetrics metrics;
+
+	public InactiveWriteListener(BatchMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	@Override
+	public void beforeWrite(List<?> items) {
+		if (metrics.isEnabled()) {
+			writeStart.get()[0] = System.nanoTime();
+		}
+	}
+
+	@Override
+	public void afterWrite(List<?> items) {
+		if (metrics.isEnabled()) {
+			metrics.record("batch.chunk.write", writeStart.get()[0]);
+		}
+	}
+
+	@Override
+	public void onWriteError(Exception e, List<?> items) {
+		log.warn("onWriteError(): {} items", items.size(), e);
+	}
+}
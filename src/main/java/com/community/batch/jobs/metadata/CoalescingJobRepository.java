@@ -0,0 +1,217 @@
+package com.community.batch.jobs.metadata;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.JobRestartException;
+import org.springframework.util.Assert;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * step execution 갱신을 모아서 기록하는 JobRepository.
+ * TaskletStep 은 chunk 를 commit 할 때마다 BATCH_STEP_EXECUTION_CONTEXT, BATCH_STEP_EXECUTION 을 갱신하는데,
+ * 이 repository 는 실행중(STARTED)인 step 의 갱신을 flushEveryChunks 번 또는 flushIntervalMillis 가 지날 때까지 미뤘다가 한 번에 기록한다.
+ * - 기록은 항상 chunk transaction 안에서 step execution, ExecutionContext 순서로 같이 하므로 DB 에는 어느 한 chunk 시점의 일관된 상태가 남는다.
+ * - step 이 끝나거나(COMPLETED, FAILED, STOPPED 등) 처음 시작할 때는 바로 기록하므로, 정상 종료/실패 후의 재시작 위치는 JDBC 모드와 같다.
+ * - 프로세스가 죽으면 reader 는 마지막 기록 시점의 lastKey 부터 다시 읽는다. 그 사이 commit 된 회원은 이미 INACTIVE 이므로
+ *   조회 조건(status = ACTIVE)에서 빠지고, read/write count 만 다시 처리한 만큼 어긋날 수 있다.
+ * - 단, ExecutionContext 에 DB 밖의 자원 위치를 checkpoint 로 저장하는 stream(archive writer 의 file.offset 등)은
+ *   재시작시 그 위치로 되돌아가므로, 미뤄진 chunk 의 기록이 지워지고 다시 기록되지도 않는다.
+ *   writeThroughContextKeys 중 하나라도 ExecutionContext 에 있는 step 은 미루지 않고 chunk 마다 바로 기록한다.
+ * - 중지 요청(STOPPING)은 기록할 때 확인하므로 최대 flushEveryChunks 만큼 늦게 반영된다.
+ * 최근 종료된 job execution 은 historySize 개 까지 메모리에 남긴다. (getRecentJobExecutions)
+ */
+public class CoalescingJobRepository implements JobRepository {
+
+	private final JobRepository delegate;
+	private final int flushEveryChunks;
+	private final long flushIntervalNanos;
+	private final int historySize;
+	private final Map<Long, PendingStep> pendingSteps = new ConcurrentHashMap<>(); // stepExecution id -> 미뤄진 갱신
+	private final Deque<JobExecution> history;
+	private Set<String> writeThroughContextKeys = Collections.emptySet();
+
+	private final Counter stepWritten;
+	private final Counter stepCoalesced;
+	private final Counter contextWritten;
+	private final Counter contextCoalesced;
+
+	public CoalescingJobRepository(JobRepository delegate, int flushEveryChunks, long flushIntervalMillis, int historySize,
+		MeterRegistry meterRegistry) {
+		Assert.isTrue(flushEveryChunks > 0, "flushEveryChunks must be greater than zero");
+		Assert.isTrue(historySize >= 0, "historySize must not be negative");
+		this.delegate = delegate;
+		this.flushEveryChunks = flushEveryChunks;
+		this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+		this.historySize = historySize;
+		this.history = new ArrayDeque<>(historySize);
+		this.stepWritten = counter(meterRegistry, "step", "written");
+		this.stepCoalesced = counter(meterRegistry, "step", "coalesced");
+		this.contextWritten = counter(meterRegistry, "context", "written");
+		this.contextCoalesced = counter(meterRegistry, "context", "coalesced");
+	}
+
+	public void setWriteThroughContextKeys(Collection<String> writeThroughContextKeys) {
+		this.writeThroughContextKeys = new HashSet<>(writeThroughContextKeys);
+	}
+
+	private static Counter counter(MeterRegistry meterRegistry, String kind, String result) {
+		return Counter.builder("batch.job.repository.updates")
+			.description("step execution 메타데이터 갱신 요청 수 (written: DB 에 기록, coalesced: 다음 기록으로 미룸)")
+			.tag("kind", kind)
+			.tag("result", result)
+			.register(meterRegistry);
+	}
+
+	@Override
+	public void update(StepExecution stepExecution) {
+		PendingStep pending = pendingSteps.get(stepExecution.getId());
+		if (pending == null || stepExecution.getStatus() != BatchStatus.STARTED || isWriteThrough(stepExecution)) {
+			flush(stepExecution, pending);
+			return;
+		}
+		if (++pending.chunks >= flushEveryChunks || System.nanoTime() - pending.lastFlushNanos >= flushIntervalNanos) {
+			flush(stepExecution, pending);
+			return;
+		}
+		stepCoalesced.increment();
+	}
+
+	@Override
+	public void updateExecutionContext(StepExecution stepExecution) {
+		PendingStep pending = pendingSteps.get(stepExecution.getId());
+		if (pending == null || stepExecution.getStatus() != BatchStatus.STARTED || isWriteThrough(stepExecution)) {
+			contextWritten.increment();
+			delegate.updateExecutionContext(stepExecution);
+			return;
+		}
+		// chunk 마다 update(StepExecution) 이 뒤따라 호출되므로 그 때 같이 기록한다.
+		pending.contextDirty = true;
+		contextCoalesced.increment();
+	}
+
+	// 재시작시 되돌릴 수 없는 checkpoint 를 저장하는 step 인지
+	private boolean isWriteThrough(StepExecution stepExecution) {
+		for (String key : writeThroughContextKeys) {
+			if (stepExecution.getExecutionContext().containsKey(key)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void flush(StepExecution stepExecution, PendingStep pending) {
+		stepWritten.increment();
+		delegate.update(stepExecution);
+		if (pending != null && pending.contextDirty) {
+			contextWritten.increment();
+			delegate.updateExecutionContext(stepExecution);
+		}
+		if (stepExecution.getStatus() == BatchStatus.STARTED) {
+			pendingSteps.put(stepExecution.getId(), new PendingStep(System.nanoTime()));
+		} else {
+			pendingSteps.remove(stepExecution.getId());
+		}
+	}
+
+	@Override
+	public void update(JobExecution jobExecution) {
+		delegate.update(jobExecution);
+		if (jobExecution.getEndTime() != null && historySize > 0) {
+			synchronized (history) {
+				if (history.size() == historySize) {
+					history.removeFirst();
+				}
+				history.addLast(jobExecution);
+			}
+		}
+	}
+
+	// 최근에 종료된 job execution (오래된 순서)
+	public List<JobExecution> getRecentJobExecutions() {
+		synchronized (history) {
+			return new ArrayList<>(history);
+		}
+	}
+
+	@Override
+	public boolean isJobInstanceExists(String jobName, JobParameters jobParameters) {
+		return delegate.isJobInstanceExists(jobName, jobParameters);
+	}
+
+	@Override
+	public JobInstance createJobInstance(String jobName, JobParameters jobParameters) {
+		return delegate.createJobInstance(jobName, jobParameters);
+	}
+
+	@Override
+	public JobExecution createJobExecution(JobInstance jobInstance, JobParameters jobParameters, String jobConfigurationLocation) {
+		return delegate.createJobExecution(jobInstance, jobParameters, jobConfigurationLocation);
+	}
+
+	@Override
+	public JobExecution createJobExecution(String jobName, JobParameters jobParameters)
+		throws JobExecutionAlreadyRunningException, JobRestartException, JobInstanceAlreadyCompleteException {
+		return delegate.createJobExecution(jobName, jobParameters);
+	}
+
+	@Override
+	public void add(StepExecution stepExecution) {
+		delegate.add(stepExecution);
+	}
+
+	@Override
+	public void addAll(Collection<StepExecution> stepExecutions) {
+		delegate.addAll(stepExecutions);
+	}
+
+	@Override
+	public void updateExecutionContext(JobExecution jobExecution) {
+		delegate.updateExecutionContext(jobExecution);
+	}
+
+	@Override
+	public StepExecution getLastStepExecution(JobInstance jobInstance, String stepName) {
+		return delegate.getLastStepExecution(jobInstance, stepName);
+	}
+
+	@Override
+	public int getStepExecutionCount(JobInstance jobInstance, String stepName) {
+		return delegate.getStepExecutionCount(jobInstance, stepName);
+	}
+
+	@Override
+	public JobExecution getLastJobExecution(String jobName, JobParameters jobParameters) {
+		return delegate.getLastJobExecution(jobName, jobParameters);
+	}
+
+	// step execution 하나는 한 스레드에서만 갱신되므로 필드는 동기화하지 않는다.
+	private static class PendingStep {
+
+		private final long lastFlushNanos;
+		private int chunks;
+		private boolean contextDirty;
+
+		PendingStep(long lastFlushNanos) {
+			this.lastFlushNanos = lastFlushNanos;
+		}
+	}
+}
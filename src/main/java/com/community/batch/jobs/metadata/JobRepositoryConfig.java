@@ -0,0 +1,49 @@
+package com.community.batch.jobs.metadata;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.configuration.annotation.BatchConfigurer;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.batch.BatchProperties;
+import org.springframework.boot.autoconfigure.batch.JpaBatchConfigurer;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+/**
+ * @EnableBatchProcessing 이 사용하는 JobRepository 를 batch.job-repository.mode 에 따라 정한다.
+ * spring boot 의 JpaBatchConfigurer 를 그대로 사용하고 (JpaTransactionManager, BATCH_* 테이블), COALESCING 모드이면 JobRepository 만 감싼다.
+ */
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(JobRepositoryProperties.class)
+public class JobRepositoryConfig {
+
+	@Bean
+	public BatchConfigurer batchConfigurer(BatchProperties batchProperties, DataSource dataSource,
+		ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers, EntityManagerFactory entityManagerFactory,
+		JobRepositoryProperties properties, MeterRegistry meterRegistry) {
+		return new JpaBatchConfigurer(batchProperties, dataSource, transactionManagerCustomizers.getIfAvailable(),
+			entityManagerFactory) {
+
+			@Override
+			protected JobRepository createJobRepository() throws Exception {
+				JobRepository jobRepository = super.createJobRepository();
+				if (properties.getMode() != JobRepositoryMode.COALESCING) {
+					return jobRepository;
+				}
+				log.info("step execution updates are coalesced every {} chunks or {}ms", properties.getFlushEveryChunks(),
+					properties.getFlushIntervalMillis());
+				CoalescingJobRepository coalescingJobRepository = new CoalescingJobRepository(jobRepository,
+					properties.getFlushEveryChunks(), properties.getFlushIntervalMillis(), properties.getHistorySize(), meterRegistry);
+				coalescingJobRepository.setWriteThroughContextKeys(properties.getWriteThroughContextKeys());
+				return coalescingJobRepository;
+			}
+		};
+	}
+}
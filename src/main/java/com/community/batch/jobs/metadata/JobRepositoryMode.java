@@ -0,0 +1,6 @@
+package com.community.batch.jobs.metadata;
+
+public enum JobRepositoryMode {
+	JDBC, // chunk 마다 BATCH_STEP_EXECUTION, BATCH_STEP_EXECUTION_CONTEXT 를 갱신 (spring batch 기본 동작)
+	COALESCING // step execution 갱신을 모아서 N chunk 또는 T ms 마다 기록
+}
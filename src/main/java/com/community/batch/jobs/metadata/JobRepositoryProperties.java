@@ -0,0 +1,30 @@
+package com.community.batch.jobs.metadata;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "batch.job-repository")
+public class JobRepositoryProperties {
+
+	private JobRepositoryMode mode = JobRepositoryMode.JDBC;
+
+	// COALESCING 모드에서 step execution 과 ExecutionContext 를 기록하는 chunk 간격
+	private int flushEveryChunks = 10;
+
+	// COALESCING 모드에서 chunk 수와 관계없이 마지막 기록 후 이 시간이 지나면 기록한다.
+	private long flushIntervalMillis = 1000;
+
+	// 메모리에 남겨 둘 최근 job execution 수
+	private int historySize = 100;
+
+	// COALESCING 모드에서도 chunk 마다 바로 기록할 ExecutionContext key. 이 key 가 있는 step 은 갱신을 미루지 않는다.
+	// (재시작시 이 위치로 파일을 잘라내는 archive writer 의 offset 이 늦게 기록되면 그 사이의 archive 가 지워진다)
+	private List<String> writeThroughContextKeys = new ArrayList<>(Collections.singletonList("InactiveUserArchiveWriter.file.offset"));
+}
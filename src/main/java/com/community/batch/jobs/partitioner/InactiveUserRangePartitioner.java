@@ -0,0 +1,200 @@
+package com.community.batch.jobs.partitioner;
+
+import com.community.batch.domain.enums.Grade;
+import com.community.batch.domain.enums.UserStatus;
+import com.community.batch.jobs.processor.InactiveUserRuleCondition;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.Assert;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 휴면 전환 대상의 idx 범위를 gridSize 개의 구간으로 나누는 partitioner.
+ * - RANGE: min(idx) ~ max(idx)를 같은 폭으로 나눈다. idx가 촘촘하게 분포되어 있을 때 적합하다.
+ * - HISTOGRAM: 대상 row 수를 기준으로 경계 idx를 조회하여 나눈다. idx 사이에 빈 구간이 많을 때에도 partition 크기가 고르다.
+ * - GRADE: grade 별로 나눈 뒤, 각 grade 를 대상 row 수에 비례하는 개수의 sub-range 로 다시 나눈다. (grade 우선순위 scheduling 용)
+ * 대상 조건은 InactiveUserRuleCondition 으로 compile 된 휴면 기준을 사용한다. (grade, socialType 별 기준이 달라도 조건 하나로 조회한다)
+ * 각 partition의 ExecutionContext에는 minIdx, maxIdx(모두 포함)와 기준 시각(referenceTime, incremental 모드에서는 previousReferenceTime)이 담긴다.
+ * - reader 는 같은 기준 시각으로 조건을 다시 compile 하므로 partitioner 와 같은 row 를 읽는다. (remote worker 포함)
+ * - estimatedCount 에는 partition 의 예상 row 수가, GRADE 모드에서는 grade 가 함께 담긴다. (WeightedPartitionHandler 가 실행 순서를 정할 때 사용)
+ */
+public class InactiveUserRangePartitioner implements Partitioner {
+
+	public static final String KEY_MIN_IDX = "minIdx";
+	public static final String KEY_MAX_IDX = "maxIdx";
+	public static final String KEY_UPDATED_DATE_FROM = "updatedDateFrom";
+	public static final String KEY_UPDATED_DATE_TO = "updatedDateTo";
+	public static final String KEY_REFERENCE_TIME = "referenceTime"; // job 의 기준 시각
+	public static final String KEY_PREVIOUS_REFERENCE_TIME = "previousReferenceTime"; // incremental 모드에서 이전 실행의 기준 시각
+	public static final String KEY_GRADE = "grade";
+	public static final String KEY_ESTIMATED_COUNT = "estimatedCount";
+	public static final String PARTITION_KEY = "partition";
+
+	public enum Mode {
+		RANGE, HISTOGRAM, GRADE
+	}
+
+	private final JdbcTemplate jdbcTemplate;
+	private final InactiveUserRuleCondition rules;
+	private final Mode mode;
+	private final String condition;
+	private final Object[] args;
+	private int subRangesPerWorker = 1;
+
+	public InactiveUserRangePartitioner(DataSource dataSource, InactiveUserRuleCondition rules, Mode mode) {
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.rules = rules;
+		this.mode = mode;
+		List<Object> args = new ArrayList<>();
+		this.condition = " from user where " + rules.toSql(args) + " and status = ?";
+		args.add(UserStatus.ACTIVE.name());
+		this.args = args.toArray();
+	}
+
+	// GRADE 모드에서 worker 하나당 만들 sub-range 수. 1 보다 크면 먼저 끝난 worker 가 남은 sub-range 를 가져가서 처리한다.
+	public void setSubRangesPerWorker(int subRangesPerWorker) {
+		Assert.isTrue(subRangesPerWorker > 0, "subRangesPerWorker must be greater than zero");
+		this.subRangesPerWorker = subRangesPerWorker;
+	}
+
+	// partition 을 나눌 때 실행하는 SQL. 실행 계획 확인(InactiveUserQueryPlanChecker)에서도 같은 SQL 을 사용한다. grade 가 null 이면 모든 grade.
+	public String statsQuery(Grade grade) {
+		return "select min(idx), max(idx), count(*)" + condition(grade);
+	}
+
+	// 마지막 '?' 는 offset
+	public String boundaryQuery(Grade grade) {
+		return "select idx" + condition(grade) + " order by idx limit 1 offset ?";
+	}
+
+	// statsQuery, boundaryQuery 의 offset 을 제외한 parameter
+	public Object[] queryArgs(Grade grade) {
+		if (grade == null) {
+			return args.clone();
+		}
+		Object[] gradeArgs = Arrays.copyOf(args, args.length + 1);
+		gradeArgs[args.length] = grade.name();
+		return gradeArgs;
+	}
+
+	private String condition(Grade grade) {
+		return grade == null ? condition : condition + " and grade = ?";
+	}
+
+	@Override
+	public Map<String, ExecutionContext> partition(int gridSize) {
+		long[] stats = stats(null);
+		long minIdx = stats[0];
+		long maxIdx = stats[1];
+		long count = stats[2];
+
+		Map<String, ExecutionContext> map = new HashMap<>(gridSize);
+		if (count == 0) { // 대상이 없더라도 step은 정상 종료될 수 있도록 빈 범위를 하나 만든다.
+			map.put(PARTITION_KEY + 0, range(0, -1, 0));
+			return map;
+		}
+
+		if (mode == Mode.GRADE) {
+			gradePartitions(gridSize * subRangesPerWorker, count, map);
+			return map;
+		}
+
+		if (mode == Mode.HISTOGRAM) {
+			addHistogramRanges(null, gridSize, count, maxIdx, map);
+			return map;
+		}
+
+		List<Long> lowerBounds = rangeLowerBounds(gridSize, minIdx, maxIdx);
+		long span = maxIdx - minIdx + 1;
+		for (int i = 0; i < lowerBounds.size(); i++) {
+			long upper = i + 1 < lowerBounds.size() ? lowerBounds.get(i + 1) - 1 : maxIdx;
+			long estimated = count * (upper - lowerBounds.get(i) + 1) / span; // idx 가 고르게 분포되어 있다고 가정한다.
+			map.put(PARTITION_KEY + i, range(lowerBounds.get(i), upper, estimated));
+		}
+		return map;
+	}
+
+	// grade 마다 대상 row 수에 비례해서 sub-range 수를 정한다. (row 가 많은 grade 일수록 잘게 나뉜다)
+	private void gradePartitions(int targetPartitions, long total, Map<String, ExecutionContext> map) {
+		for (Grade grade : Grade.values()) {
+			long[] stats = stats(grade);
+			if (stats[2] == 0) {
+				continue;
+			}
+			int parts = (int) Math.max(1, Math.round((double) targetPartitions * stats[2] / total));
+			addHistogramRanges(grade, parts, stats[2], stats[1], map);
+		}
+	}
+
+	private long[] stats(Grade grade) {
+		return jdbcTemplate.queryForObject(statsQuery(grade),
+			(rs, rowNum) -> new long[] { rs.getLong(1), rs.getLong(2), rs.getLong(3) }, queryArgs(grade));
+	}
+
+	private List<Long> rangeLowerBounds(int gridSize, long minIdx, long maxIdx) {
+		long span = maxIdx - minIdx + 1;
+		long size = (span + gridSize - 1) / gridSize;
+		List<Long> lowerBounds = new ArrayList<>(gridSize);
+		for (long lower = minIdx; lower <= maxIdx; lower += size) {
+			lowerBounds.add(lower);
+		}
+		return lowerBounds;
+	}
+
+	// 대상 row를 idx 순으로 세웠을 때 count * i / parts 번째 idx를 각 구간의 시작으로 사용한다.
+	// 구간의 예상 row 수는 다음 구간 시작까지의 offset 차이다.
+	private void addHistogramRanges(Grade grade, int parts, long count, long maxIdx, Map<String, ExecutionContext> map) {
+		String sql = boundaryQuery(grade);
+		Object[] args = queryArgs(grade);
+		Object[] offsetArgs = Arrays.copyOf(args, args.length + 1);
+		List<long[]> bounds = new ArrayList<>(parts); // { lower idx, offset }
+		for (int i = 0; i < parts; i++) {
+			long offset = count * i / parts;
+			offsetArgs[args.length] = offset;
+			Long lower = jdbcTemplate.queryForObject(sql, Long.class, offsetArgs);
+			if (bounds.isEmpty() || bounds.get(bounds.size() - 1)[0] < lower) {
+				bounds.add(new long[] { lower, offset });
+			}
+		}
+		for (int i = 0; i < bounds.size(); i++) {
+			boolean last = i + 1 == bounds.size();
+			long upper = last ? maxIdx : bounds.get(i + 1)[0] - 1;
+			long estimated = (last ? count : bounds.get(i + 1)[1]) - bounds.get(i)[1];
+			ExecutionContext executionContext = range(bounds.get(i)[0], upper, estimated);
+			if (grade != null) {
+				executionContext.putString(KEY_GRADE, grade.name());
+			}
+			map.put(PARTITION_KEY + map.size(), executionContext);
+		}
+	}
+
+	private ExecutionContext range(long minIdx, long maxIdx, long estimatedCount) {
+		ExecutionContext executionContext = new ExecutionContext();
+		executionContext.putLong(KEY_MIN_IDX, minIdx);
+		executionContext.putLong(KEY_MAX_IDX, maxIdx);
+		executionContext.putLong(KEY_ESTIMATED_COUNT, estimatedCount);
+		executionContext.putLong(KEY_REFERENCE_TIME, toEpochMilli(rules.getReferenceTime()));
+		if (rules.getPreviousReferenceTime() != null) {
+			executionContext.putLong(KEY_PREVIOUS_REFERENCE_TIME, toEpochMilli(rules.getPreviousReferenceTime()));
+		}
+		return executionContext;
+	}
+
+	public static long toEpochMilli(LocalDateTime dateTime) {
+		return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+	}
+
+	public static LocalDateTime fromEpochMilli(long epochMilli) {
+		return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), ZoneId.systemDefault());
+	}
+}
@@ -0,0 +1,21 @@
+package com.community.batch.jobs.partitioner;
+
+import com.community.batch.domain.enums.Grade;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "batch.inactive-user.scheduling")
+public class PartitionSchedulingProperties {
+
+	// 먼저 실행할 grade 순서 (GRADE 모드). 비워두면 grade 와 상관없이 예상 row 수가 큰 partition 부터 실행한다.
+	private List<Grade> gradePriority = new ArrayList<>();
+
+	// GRADE 모드에서 worker 하나당 만들 sub-range 수
+	private int subRangesPerWorker = 4;
+}
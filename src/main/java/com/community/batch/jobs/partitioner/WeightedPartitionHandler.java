@@ -0,0 +1,60 @@
+package com.community.batch.jobs.partitioner;
+
+import com.community.batch.domain.enums.Grade;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.partition.support.TaskExecutorPartitionHandler;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.community.batch.jobs.partitioner.InactiveUserRangePartitioner.KEY_ESTIMATED_COUNT;
+import static com.community.batch.jobs.partitioner.InactiveUserRangePartitioner.KEY_GRADE;
+
+/**
+ * partition 을 taskExecutor 에 넘기는 순서를 정하는 PartitionHandler.
+ * - gradePriority 에 먼저 나온 grade 의 partition 부터 (VIP 먼저 처리하는 SLA 등)
+ * - 같은 우선순위 안에서는 예상 row 수(estimatedCount)가 큰 partition 부터 (largest-first)
+ * partition 이 worker 수보다 많으면 나머지는 taskExecutor 의 queue 에 이 순서대로 대기하고,
+ * 먼저 끝난 worker 가 남은 partition(sub-range)을 가져가므로 가장 큰 partition 이 마지막에 시작되어 전체 시간을 늘리지 않는다.
+ */
+@Slf4j
+public class WeightedPartitionHandler extends TaskExecutorPartitionHandler {
+
+	private final List<Grade> gradePriority;
+
+	public WeightedPartitionHandler(List<Grade> gradePriority) {
+		this.gradePriority = gradePriority;
+	}
+
+	@Override
+	protected Set<StepExecution> doHandle(StepExecution masterStepExecution, Set<StepExecution> partitionStepExecutions)
+		throws Exception {
+		List<StepExecution> ordered = new ArrayList<>(partitionStepExecutions);
+		ordered.sort(Comparator.comparingInt(this::priority)
+			.thenComparing(Comparator.comparingLong(WeightedPartitionHandler::estimatedCount).reversed()));
+		if (log.isDebugEnabled()) {
+			ordered.forEach(stepExecution -> log.debug("submit {} (grade: {}, estimated: {})", stepExecution.getStepName(),
+				stepExecution.getExecutionContext().getString(KEY_GRADE, "-"), estimatedCount(stepExecution)));
+		}
+		// TaskExecutorPartitionHandler 는 전달받은 Set 의 순서대로 submit 한다.
+		return super.doHandle(masterStepExecution, new LinkedHashSet<>(ordered));
+	}
+
+	private int priority(StepExecution stepExecution) {
+		ExecutionContext executionContext = stepExecution.getExecutionContext();
+		if (!executionContext.containsKey(KEY_GRADE)) {
+			return gradePriority.size();
+		}
+		int index = gradePriority.indexOf(Grade.valueOf(executionContext.getString(KEY_GRADE)));
+		return index < 0 ? gradePriority.size() : index;
+	}
+
+	private static long estimatedCount(StepExecution stepExecution) {
+		return stepExecution.getExecutionContext().getLong(KEY_ESTIMATED_COUNT, 0L);
+	}
+}
@@ -0,0 +1,134 @@
+package com.community.batch.jobs.policy;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.repeat.RepeatContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.batch.repeat.context.RepeatContextSupport;
+import org.springframework.batch.repeat.policy.CompletionPolicySupport;
+import org.springframework.util.Assert;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * commit 시간을 측정하여 다음 chunk의 크기를 정하는 CompletionPolicy.
+ * - ChunkListener 로 chunk 마다 걸린 시간과 write 된 item 수를 측정한다.
+ * - 목표 commit 시간(targetCommitMillis)에 맞도록 chunk 크기를 비례해서 늘리거나 줄이고, minSize ~ maxSize 안으로 제한한다.
+ * - 결정된 chunk 크기는 step ExecutionContext(adaptive.chunk.size)와 batch.chunk.size metric 으로 남긴다.
+ * - 재시작한 step 은 첫 chunk 를 시작할 때 ExecutionContext 에 남은 크기부터 이어서 조절한다.
+ *
+ * step 빌드시 chunk(policy) 와 listener((ChunkListener) policy) 에 함께 등록해야 한다.
+ */
+@Slf4j
+public class AdaptiveChunkCompletionPolicy extends CompletionPolicySupport implements ChunkListener {
+
+	public static final String CHUNK_SIZE_KEY = "adaptive.chunk.size";
+
+	private final AdaptiveChunkProperties properties;
+	private final DistributionSummary chunkSizeSummary;
+
+	private volatile int chunkSize;
+
+	private final AtomicBoolean restored = new AtomicBoolean();
+
+	// multi-thread step 에서는 여러 스레드가 동시에 chunk를 처리하므로 측정 값은 스레드 별로 보관한다.
+	private final ThreadLocal<long[]> chunkStart = ThreadLocal.withInitial(() -> new long[2]);
+
+	public AdaptiveChunkCompletionPolicy(AdaptiveChunkProperties properties, MeterRegistry meterRegistry) {
+		Assert.isTrue(properties.getMinSize() > 0, "minSize must be greater than zero");
+		Assert.isTrue(properties.getMinSize() <= properties.getMaxSize(), "minSize must not be greater than maxSize");
+		this.properties = properties;
+		this.chunkSize = clamp(properties.getInitialSize());
+		this.chunkSizeSummary = DistributionSummary.builder("batch.chunk.size")
+			.description("adaptive completion policy 가 결정한 chunk 크기")
+			.register(meterRegistry);
+	}
+
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	@Override
+	public RepeatContext start(RepeatContext parent) {
+		return new ChunkSizeContext(parent, chunkSize);
+	}
+
+	@Override
+	public boolean isComplete(RepeatContext context, RepeatStatus result) {
+		return super.isComplete(context, result) || isComplete(context);
+	}
+
+	@Override
+	public boolean isComplete(RepeatContext context) {
+		return context.getStartedCount() >= ((ChunkSizeContext) context).size;
+	}
+
+	@Override
+	public void beforeChunk(ChunkContext context) {
+		StepExecution stepExecution = context.getStepContext().getStepExecution();
+		// beforeChunk 는 chunk 의 start() 보다 먼저 호출되므로 첫 chunk 부터 이전 실행의 크기를 사용한다.
+		if (restored.compareAndSet(false, true) && stepExecution.getExecutionContext().containsKey(CHUNK_SIZE_KEY)) {
+			chunkSize = clamp(stepExecution.getExecutionContext().getInt(CHUNK_SIZE_KEY));
+			log.debug("restored chunk size {}", chunkSize);
+		}
+		long[] start = chunkStart.get();
+		start[0] = System.nanoTime();
+		start[1] = stepExecution.getWriteCount();
+	}
+
+	@Override
+	public void afterChunk(ChunkContext context) {
+		long[] start = chunkStart.get();
+		StepExecution stepExecution = context.getStepContext().getStepExecution();
+		long elapsedNanos = Math.max(System.nanoTime() - start[0], 1L);
+		long items = stepExecution.getWriteCount() - start[1];
+		if (items <= 0) {
+			return; // 마지막(빈) chunk 이거나 다른 스레드와 섞인 경우 크기를 조절하지 않는다.
+		}
+
+		int next = nextChunkSize(chunkSize, items, elapsedNanos);
+		chunkSize = next;
+		chunkSizeSummary.record(next);
+		stepExecution.getExecutionContext().putInt(CHUNK_SIZE_KEY, next);
+		log.debug("chunk {} items in {} ms -> next chunk size {}", items, elapsedNanos / 1_000_000, next);
+	}
+
+	@Override
+	public void afterChunkError(ChunkContext context) {
+		// 실패한 chunk는 재시도 비용을 줄이기 위해 크기를 절반으로 줄인다.
+		chunkSize = clamp(chunkSize / 2);
+	}
+
+	int nextChunkSize(int current, long items, long elapsedNanos) {
+		double elapsedMillis = elapsedNanos / 1_000_000.0;
+		double factor = properties.getTargetCommitMillis() / elapsedMillis;
+
+		// 목표 시간을 넘었더라도 처리량이 목표보다 낮으면 chunk를 줄이지 않는다. (chunk가 작을수록 commit 비용 비중이 커진다)
+		long targetRowsPerSecond = properties.getTargetRowsPerSecond();
+		if (targetRowsPerSecond > 0 && factor < 1.0 && items * 1000.0 / elapsedMillis < targetRowsPerSecond) {
+			factor = 1.0;
+		}
+
+		double maxFactor = properties.getMaxGrowthFactor();
+		factor = Math.min(Math.max(factor, 1.0 / maxFactor), maxFactor);
+		return clamp((int) Math.round(current * factor));
+	}
+
+	private int clamp(int size) {
+		return Math.min(Math.max(size, properties.getMinSize()), properties.getMaxSize());
+	}
+
+	private static class ChunkSizeContext extends RepeatContextSupport {
+
+		private final int size;
+
+		ChunkSizeContext(RepeatContext parent, int size) {
+			super(parent);
+			this.size = size;
+		}
+	}
+}
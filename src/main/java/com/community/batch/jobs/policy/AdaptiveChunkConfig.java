@@ -0,0 +1,20 @@
+package com.community.batch.jobs.policy;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(AdaptiveChunkProperties.class)
+public class AdaptiveChunkConfig {
+
+	// partition 마다 처리 속도가 다를 수 있으므로 step 마다 chunk 크기를 따로 조절한다.
+	@Bean
+	@StepScope
+	public AdaptiveChunkCompletionPolicy adaptiveChunkCompletionPolicy(AdaptiveChunkProperties properties,
+		MeterRegistry meterRegistry) {
+		return new AdaptiveChunkCompletionPolicy(properties, meterRegistry);
+	}
+}
@@ -0,0 +1,27 @@
+package com.community.batch.jobs.policy;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "batch.chunk")
+public class AdaptiveChunkProperties {
+
+	// 첫 chunk의 크기
+	private int initialSize = 100;
+
+	// chunk 크기의 하한/상한 (min == max 이면 고정 크기로 동작한다)
+	private int minSize = 10;
+	private int maxSize = 1_000;
+
+	// chunk 하나를 read -> process -> write -> commit 하는데 걸리는 목표 시간
+	private long targetCommitMillis = 200;
+
+	// 목표 처리량(rows/s). 0 보다 크면 commit 시간이 목표를 넘더라도 처리량이 이보다 낮을 때는 chunk를 줄이지 않는다.
+	private long targetRowsPerSecond = 0;
+
+	// 한 번에 변경되는 크기의 최대 배율 (급격한 변화로 인한 진동을 막는다)
+	private double maxGrowthFactor = 2.0;
+}
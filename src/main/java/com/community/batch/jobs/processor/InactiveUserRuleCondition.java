@@ -0,0 +1,165 @@
+package com.community.batch.jobs.processor;
+
+import com.community.batch.domain.enums.Grade;
+import com.community.batch.domain.enums.SocialType;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static com.community.batch.jobs.processor.InactiveUserRuleTable.GRADES;
+import static com.community.batch.jobs.processor.InactiveUserRuleTable.GRADE_SLOTS;
+import static com.community.batch.jobs.processor.InactiveUserRuleTable.SOCIAL_TYPES;
+import static com.community.batch.jobs.processor.InactiveUserRuleTable.SOCIAL_TYPE_SLOTS;
+import static com.community.batch.jobs.processor.InactiveUserRuleTable.slot;
+
+/**
+ * 휴면 기준(InactiveUserRuleTable)을 기준 시각에 대해 계산해서 reader(JPQL), partitioner(SQL)의 조회 조건으로 만든다.
+ * 기준이 몇 개이든 대상 table 은 조건 하나로 한 번만 scan 한다.
+ *
+ * - 조회 범위: updatedDate < 가장 짧은 기준의 cutoff. index(status, updated_date, idx)를 range scan 하는 조건이다.
+ *   incremental 모드에서는 updatedDate >= 이전 기준 시각에 대한 가장 이른 cutoff 를 더한다. (모든 칸에서 새로 기준을 넘은 회원을 포함한다)
+ * - PUSH_DOWN: 기준이 grade, socialType 마다 다르면 CASE 로 칸별 cutoff 를 비교하는 조건을 더해서 DB 가 걸러낸다.
+ *   "case when <칸> and updatedDate < ? then 1 when <칸> then 0 ... when updatedDate < ? then 1 else 0 end = 1"
+ *   (parameter 가 항상 컬럼과 비교되므로 DB 가 THEN 절의 parameter 타입을 추론하지 않아도 된다)
+ * - IN_JVM: 조회 범위만 SQL 로 보내고, 기준은 InactiveUserRuleProcessor 가 item 마다 판단한다.
+ * 기준이 모두 같으면 두 방식 모두 조회 범위 조건만 남는다.
+ */
+public class InactiveUserRuleCondition {
+
+	private final LocalDateTime referenceTime;
+	private final LocalDateTime previousReferenceTime;
+	private final InactiveUserRuleTable.Cutoffs cutoffs;
+	private final LocalDateTime updatedDateFrom;
+	private final boolean pushDown;
+
+	public InactiveUserRuleCondition(InactiveUserRuleTable rules, InactiveUserRuleEvaluation evaluation,
+		LocalDateTime referenceTime, LocalDateTime previousReferenceTime) {
+		this.referenceTime = referenceTime;
+		this.previousReferenceTime = previousReferenceTime;
+		this.cutoffs = rules.cutoffs(referenceTime);
+		this.updatedDateFrom = previousReferenceTime == null ? null : rules.cutoffs(previousReferenceTime).earliest();
+		this.pushDown = evaluation == InactiveUserRuleEvaluation.PUSH_DOWN && !cutoffs.isUniform();
+	}
+
+	public LocalDateTime getReferenceTime() {
+		return referenceTime;
+	}
+
+	public LocalDateTime getPreviousReferenceTime() {
+		return previousReferenceTime;
+	}
+
+	public LocalDateTime getUpdatedDateFrom() {
+		return updatedDateFrom;
+	}
+
+	public LocalDateTime getUpdatedDateTo() {
+		return cutoffs.latest();
+	}
+
+	// 조회 SQL 에서 기준을 판단하면 processor 에서 걸러지는 item 이 없다.
+	public boolean isPushedDown() {
+		return pushDown;
+	}
+
+	// native SQL 조건. '?' 에 bind 할 값을 args 에 순서대로 추가한다.
+	public String toSql(List<Object> args) {
+		return render("grade", "social_type", "updated_date", value -> {
+			args.add(value instanceof LocalDateTime ? Timestamp.valueOf((LocalDateTime) value)
+				: value instanceof Enum ? ((Enum<?>) value).name() : value);
+			return "?";
+		});
+	}
+
+	// JPQL 조건. 이름 있는 parameter(rule0, rule1 ...)를 parameters 에 추가한다.
+	public String toJpql(String alias, Map<String, Object> parameters) {
+		int[] sequence = { 0 };
+		return render(alias + ".grade", alias + ".socialType", alias + ".updatedDate", value -> {
+			String name = "rule" + sequence[0]++;
+			parameters.put(name, value);
+			return ":" + name;
+		});
+	}
+
+	private String render(String grade, String socialType, String updatedDate, Function<Object, String> bind) {
+		StringBuilder condition = new StringBuilder(updatedDate).append(" < ").append(bind.apply(cutoffs.latest()));
+		if (updatedDateFrom != null) {
+			condition.append(" and ").append(updatedDate).append(" >= ").append(bind.apply(updatedDateFrom));
+		}
+		if (pushDown) {
+			condition.append(" and ").append(thresholds(grade, socialType, updatedDate, bind)).append(" = 1");
+		}
+		return condition.toString();
+	}
+
+	// 가장 흔한 cutoff 는 마지막 분기(else)로 보내고, 나머지 칸만 분기를 만든다. grade 의 모든 칸이 같으면 grade 조건 하나로 묶는다.
+	private String thresholds(String grade, String socialType, String updatedDate, Function<Object, String> bind) {
+		LocalDateTime otherwise = mostCommonCutoff();
+		StringBuilder sql = new StringBuilder("case");
+		for (int g = 0; g < GRADE_SLOTS; g++) {
+			Grade gradeValue = g < GRADES.length ? GRADES[g] : null;
+			LocalDateTime gradeCutoff = gradeCutoff(g);
+			if (gradeCutoff != null) {
+				if (!gradeCutoff.equals(otherwise)) {
+					when(sql, () -> equalsOrNull(grade, gradeValue, bind), updatedDate, gradeCutoff, bind);
+				}
+				continue;
+			}
+			for (int s = 0; s < SOCIAL_TYPE_SLOTS; s++) {
+				SocialType socialTypeValue = s < SOCIAL_TYPES.length ? SOCIAL_TYPES[s] : null;
+				LocalDateTime cutoff = cutoffs.cutoff(slot(g, s));
+				if (!cutoff.equals(otherwise)) {
+					when(sql, () -> equalsOrNull(grade, gradeValue, bind) + " and " + equalsOrNull(socialType, socialTypeValue, bind),
+						updatedDate, cutoff, bind);
+				}
+			}
+		}
+		return sql.append(" when ").append(updatedDate).append(" < ").append(bind.apply(otherwise))
+			.append(" then 1 else 0 end").toString();
+	}
+
+	// 칸 조건은 두 번 나오므로 parameter 도 나오는 순서대로 두 번 bind 한다. (SQL 의 '?' 는 위치로 bind 된다)
+	private static void when(StringBuilder sql, Supplier<String> slotCondition, String updatedDate, LocalDateTime cutoff,
+		Function<Object, String> bind) {
+		sql.append(" when ").append(slotCondition.get()).append(" and ").append(updatedDate).append(" < ").append(bind.apply(cutoff))
+			.append(" then 1 when ").append(slotCondition.get()).append(" then 0");
+	}
+
+	private static String equalsOrNull(String column, Enum<?> value, Function<Object, String> bind) {
+		return value == null ? column + " is null" : column + " = " + bind.apply(value);
+	}
+
+	// grade 의 모든 칸(socialType)이 같은 cutoff 이면 그 값, 아니면 null
+	private LocalDateTime gradeCutoff(int g) {
+		LocalDateTime first = cutoffs.cutoff(slot(g, 0));
+		for (int s = 1; s < SOCIAL_TYPE_SLOTS; s++) {
+			if (!cutoffs.cutoff(slot(g, s)).equals(first)) {
+				return null;
+			}
+		}
+		return first;
+	}
+
+	private LocalDateTime mostCommonCutoff() {
+		int slots = GRADE_SLOTS * SOCIAL_TYPE_SLOTS;
+		LocalDateTime mostCommon = cutoffs.cutoff(0);
+		int mostCount = 0;
+		for (int i = 0; i < slots; i++) {
+			int count = 0;
+			for (int j = 0; j < slots; j++) {
+				if (cutoffs.cutoff(j).equals(cutoffs.cutoff(i))) {
+					count++;
+				}
+			}
+			if (count > mostCount) {
+				mostCommon = cutoffs.cutoff(i);
+				mostCount = count;
+			}
+		}
+		return mostCommon;
+	}
+}
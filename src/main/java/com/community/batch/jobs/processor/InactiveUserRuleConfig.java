@@ -0,0 +1,21 @@
+package com.community.batch.jobs.processor;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(InactiveUserRuleProperties.class)
+public class InactiveUserRuleConfig {
+
+	// batch.inactive-user.rules 의 기준. reader, partitioner 의 조회 조건과 processor 가 같은 table 을 사용한다.
+	@Bean
+	public InactiveUserRuleTable inactiveUserRuleTable(InactiveUserRuleProperties properties) {
+		return properties.toRuleTable();
+	}
+
+	@Bean
+	public InactiveUserRuleProcessor inactiveUserRuleProcessor(InactiveUserRuleTable inactiveUserRuleTable) {
+		return new InactiveUserRuleProcessor(inactiveUserRuleTable);
+	}
+}
@@ -0,0 +1,6 @@
+package com.community.batch.jobs.processor;
+
+public enum InactiveUserRuleEvaluation {
+	PUSH_DOWN, // grade, socialType 별 기준을 CASE 조건으로 조회 SQL 에 넣어서 DB 가 걸러냄
+	IN_JVM     // 가장 짧은 기준으로 조회하고 InactiveUserRuleProcessor 가 item 마다 걸러냄
+}
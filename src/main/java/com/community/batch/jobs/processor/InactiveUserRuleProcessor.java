@@ -0,0 +1,71 @@
+package com.community.batch.jobs.processor;
+
+import com.community.batch.domain.InactiveUserCandidate;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemProcessor;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+import static com.community.batch.jobs.partitioner.InactiveUserRangePartitioner.KEY_REFERENCE_TIME;
+import static com.community.batch.jobs.partitioner.InactiveUserRangePartitioner.fromEpochMilli;
+
+/**
+ * grade, socialType 별 휴면 기준(InactiveUserRuleTable)을 넘지 않은 회원을 걸러내는 processor. (null 을 반환하면 write 되지 않는다)
+ * - step 시작시 job 의 기준 시각으로 cutoff 를 한 번 계산해 두고, item 마다 배열 조회와 비교만 한다.
+ *   기준 시각: job ExecutionContext 의 referenceTime, 없으면 jobParameters 의 nowDate, 둘 다 없으면 step 시작 시각
+ * - reader 가 기준을 조회 조건으로 push-down 하면 걸러지는 item 은 없고, IN_JVM 모드에서는 이 processor 가 기준을 판단한다.
+ * - partition step 들이 같은 processor 를 공유하므로 step listener 로도 등록해야 한다. (같은 job 의 partition 은 같은 기준 시각을 사용한다)
+ */
+public class InactiveUserRuleProcessor implements ItemProcessor<InactiveUserCandidate, InactiveUserCandidate>, StepExecutionListener {
+
+	private static final String KEY_NOW_DATE = "nowDate"; // multi-thread job (InactiveUserJobConfig) 의 기준 시각
+
+	private final InactiveUserRuleTable rules;
+	private volatile LocalDateTime referenceTime;
+	private volatile InactiveUserRuleTable.Cutoffs cutoffs;
+
+	public InactiveUserRuleProcessor(InactiveUserRuleTable rules) {
+		this.rules = rules;
+		prepare(LocalDateTime.now());
+	}
+
+	public InactiveUserRuleTable getRules() {
+		return rules;
+	}
+
+	// 기준 시각이 바뀔 때만 cutoff 를 다시 계산한다.
+	public void prepare(LocalDateTime referenceTime) {
+		if (!referenceTime.equals(this.referenceTime)) {
+			this.cutoffs = rules.cutoffs(referenceTime);
+			this.referenceTime = referenceTime;
+		}
+	}
+
+	@Override
+	public void beforeStep(StepExecution stepExecution) {
+		ExecutionContext jobContext = stepExecution.getJobExecution().getExecutionContext();
+		Date nowDate = stepExecution.getJobParameters().getDate(KEY_NOW_DATE);
+		if (jobContext.containsKey(KEY_REFERENCE_TIME)) {
+			prepare(fromEpochMilli(jobContext.getLong(KEY_REFERENCE_TIME)));
+		} else if (nowDate != null) {
+			prepare(LocalDateTime.ofInstant(nowDate.toInstant(), ZoneId.systemDefault()));
+		} else {
+			prepare(LocalDateTime.now());
+		}
+	}
+
+	@Override
+	public ExitStatus afterStep(StepExecution stepExecution) {
+		return null;
+	}
+
+	@Override
+	public InactiveUserCandidate process(InactiveUserCandidate user) {
+		return cutoffs.isInactive(user.getGrade(), user.getSocialType(), user.getUpdatedDate()) ? user : null;
+	}
+}
@@ -0,0 +1,50 @@
+package com.community.batch.jobs.processor;
+
+import com.community.batch.domain.enums.Grade;
+import com.community.batch.domain.enums.SocialType;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.Assert;
+
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "batch.inactive-user.rules")
+public class InactiveUserRuleProperties {
+
+	// 조회 SQL 에서 기준을 판단할지(PUSH_DOWN), processor 에서 판단할지(IN_JVM)
+	private InactiveUserRuleEvaluation evaluation = InactiveUserRuleEvaluation.PUSH_DOWN;
+
+	// 마지막 수정 후 휴면 전환까지의 기간 (ISO-8601, 예: P1Y, P6M, P90D)
+	private String defaultRetention = "P1Y";
+
+	// grade, socialType 별 기준. 위에서부터 차례로 덮어쓴다. (grade 나 socialType 을 비워두면 모든 값에 적용)
+	private List<Rule> overrides = new ArrayList<>();
+
+	public InactiveUserRuleTable toRuleTable() {
+		InactiveUserRuleTable table = InactiveUserRuleTable.uniform(parse(defaultRetention));
+		for (Rule rule : overrides) {
+			table = table.withRetention(rule.getGrade(), rule.getSocialType(), parse(rule.getRetention()));
+		}
+		return table;
+	}
+
+	private static Period parse(String retention) {
+		Assert.hasText(retention, "retention must not be empty");
+		Period period = Period.parse(retention);
+		Assert.isTrue(!period.isNegative() && !period.isZero(), "retention must be positive: " + retention);
+		return period;
+	}
+
+	@Getter
+	@Setter
+	public static class Rule {
+		private Grade grade;
+		private SocialType socialType;
+		private String retention;
+	}
+}
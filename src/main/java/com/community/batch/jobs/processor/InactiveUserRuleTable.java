@@ -0,0 +1,128 @@
+package com.community.batch.jobs.processor;
+
+import com.community.batch.domain.enums.Grade;
+import com.community.batch.domain.enums.SocialType;
+
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.Arrays;
+
+/**
+ * grade, socialType 별 휴면 전환 기준(마지막 수정 후 경과 기간).
+ * (grade, socialType) 조합마다 한 칸씩 ordinal 로 찾는 배열에 담아 두므로, item 마다 Map 조회, 문자열 생성, boxing 이 없다.
+ * grade, socialType 이 없는(null) 회원은 각각의 마지막 칸을 사용한다.
+ *
+ * 기준 시각(job 시작 시각)이 정해지면 cutoffs(now) 로 칸마다 "이 시각 이전에 수정되었으면 휴면" 인 시각을 미리 계산해 둔다.
+ */
+public class InactiveUserRuleTable {
+
+	static final Grade[] GRADES = Grade.values();
+	static final SocialType[] SOCIAL_TYPES = SocialType.values();
+	static final int GRADE_SLOTS = GRADES.length + 1;
+	static final int SOCIAL_TYPE_SLOTS = SOCIAL_TYPES.length + 1;
+
+	private final Period[] retentions;
+
+	private InactiveUserRuleTable(Period[] retentions) {
+		this.retentions = retentions;
+	}
+
+	public static InactiveUserRuleTable uniform(Period retention) {
+		Period[] retentions = new Period[GRADE_SLOTS * SOCIAL_TYPE_SLOTS];
+		Arrays.fill(retentions, retention);
+		return new InactiveUserRuleTable(retentions);
+	}
+
+	// grade 나 socialType 이 null 이면 모든 값(없는 경우 포함)에 적용한다. 새 table 을 반환한다.
+	public InactiveUserRuleTable withRetention(Grade grade, SocialType socialType, Period retention) {
+		Period[] copied = retentions.clone();
+		for (int g = 0; g < GRADE_SLOTS; g++) {
+			for (int s = 0; s < SOCIAL_TYPE_SLOTS; s++) {
+				if ((grade == null || grade.ordinal() == g) && (socialType == null || socialType.ordinal() == s)) {
+					copied[g * SOCIAL_TYPE_SLOTS + s] = retention;
+				}
+			}
+		}
+		return new InactiveUserRuleTable(copied);
+	}
+
+	public Period retention(Grade grade, SocialType socialType) {
+		return retentions[slot(grade, socialType)];
+	}
+
+	public Cutoffs cutoffs(LocalDateTime now) {
+		LocalDateTime[] cutoffs = new LocalDateTime[retentions.length];
+		for (int i = 0; i < retentions.length; i++) {
+			cutoffs[i] = now.minus(retentions[i]);
+		}
+		return new Cutoffs(retentions, cutoffs);
+	}
+
+	static int slot(int gradeSlot, int socialTypeSlot) {
+		return gradeSlot * SOCIAL_TYPE_SLOTS + socialTypeSlot;
+	}
+
+	private static int slot(Grade grade, SocialType socialType) {
+		int g = grade == null ? GRADES.length : grade.ordinal();
+		int s = socialType == null ? SOCIAL_TYPES.length : socialType.ordinal();
+		return g * SOCIAL_TYPE_SLOTS + s;
+	}
+
+	/**
+	 * 기준 시각에 대해 계산된 칸별 cutoff. isInactive 는 배열 조회와 비교만 하므로 객체를 만들지 않는다.
+	 */
+	public static class Cutoffs {
+
+		private final Period[] retentions;
+		private final LocalDateTime[] cutoffs;
+		private final int latest;
+		private final int earliest;
+
+		private Cutoffs(Period[] retentions, LocalDateTime[] cutoffs) {
+			this.retentions = retentions;
+			this.cutoffs = cutoffs;
+			int latest = 0;
+			int earliest = 0;
+			for (int i = 1; i < cutoffs.length; i++) {
+				if (cutoffs[i].isAfter(cutoffs[latest])) {
+					latest = i;
+				}
+				if (cutoffs[i].isBefore(cutoffs[earliest])) {
+					earliest = i;
+				}
+			}
+			this.latest = latest;
+			this.earliest = earliest;
+		}
+
+		public LocalDateTime cutoff(Grade grade, SocialType socialType) {
+			return cutoffs[slot(grade, socialType)];
+		}
+
+		public boolean isInactive(Grade grade, SocialType socialType, LocalDateTime updatedDate) {
+			return updatedDate != null && updatedDate.isBefore(cutoffs[slot(grade, socialType)]);
+		}
+
+		// 가장 짧은 기준의 cutoff. 이 시각 이후에 수정된 회원은 어떤 기준으로도 휴면 대상이 아니다.
+		public LocalDateTime latest() {
+			return cutoffs[latest];
+		}
+
+		// 가장 긴 기준의 cutoff
+		public LocalDateTime earliest() {
+			return cutoffs[earliest];
+		}
+
+		public Period shortestRetention() {
+			return retentions[latest];
+		}
+
+		public boolean isUniform() {
+			return cutoffs[latest].equals(cutoffs[earliest]);
+		}
+
+		LocalDateTime cutoff(int slot) {
+			return cutoffs[slot];
+		}
+	}
+}
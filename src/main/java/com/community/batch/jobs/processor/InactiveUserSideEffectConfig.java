@@ -0,0 +1,17 @@
+package com.community.batch.jobs.processor;
+
+import com.community.batch.jobs.listener.BatchMetrics;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(InactiveUserSideEffectProperties.class)
+public class InactiveUserSideEffectConfig {
+
+	@Bean
+	public InactiveUserSideEffectProcessor inactiveUserSideEffectProcessor(InactiveUserSideEffectProperties properties,
+		BatchMetrics metrics) {
+		return new InactiveUserSideEffectProcessor(properties, metrics);
+	}
+}
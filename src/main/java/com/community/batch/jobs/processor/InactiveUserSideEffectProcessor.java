@@ -0,0 +1,58 @@
+package com.community.batch.jobs.processor;
+
+import com.community.batch.domain.InactiveUserCandidate;
+import com.community.batch.jobs.listener.BatchMetrics;
+import org.springframework.batch.item.ItemProcessor;
+
+/**
+ * 휴면 전환 대상 회원마다 안내 발송, 정보 보관을 수행하는 processor. (외부 시스템 호출은 지연 시간으로 흉내낸다)
+ * - 한 item 의 처리 시간이 대부분 I/O 대기이므로, pipeline 모드에서는 AsyncItemProcessor 로 감싸서
+ *   chunk 의 item 들을 pipelineTaskExecutor 에 동시에 실행시킨다. (chunk 지연 = item 지연의 합 -> 가장 느린 item 수준)
+ * - AsyncItemWriter 가 chunk 순서대로 Future 를 꺼내므로 write 순서는 read 순서와 같고,
+ *   실패한 item 의 예외는 write 시점에 그대로 다시 던져져서 순차 처리와 마찬가지로 chunk 전체가 rollback 된다.
+ */
+public class InactiveUserSideEffectProcessor implements ItemProcessor<InactiveUserCandidate, InactiveUserCandidate> {
+
+	private final InactiveUserSideEffectProperties properties;
+	private final BatchMetrics metrics;
+
+	public InactiveUserSideEffectProcessor(InactiveUserSideEffectProperties properties, BatchMetrics metrics) {
+		this.properties = properties;
+		this.metrics = metrics;
+	}
+
+	@Override
+	public InactiveUserCandidate process(InactiveUserCandidate user) throws Exception {
+		return process(user, true);
+	}
+
+	// archive 가 false 이면 안내만 발송한다. (이전 실행에서 이미 정보를 보관한 회원)
+	public InactiveUserCandidate process(InactiveUserCandidate user, boolean archive) throws Exception {
+		long start = System.nanoTime();
+		notifyInactive(user);
+		metrics.record("batch.side.effect.notification", start);
+
+		if (archive) {
+			start = System.nanoTime();
+			archive(user);
+			metrics.record("batch.side.effect.archive", start);
+		}
+		return user;
+	}
+
+	// 휴면 전환 안내 발송 (외부 알림 API 호출 자리)
+	protected void notifyInactive(InactiveUserCandidate user) throws InterruptedException {
+		sleep(properties.getNotificationLatencyMs());
+	}
+
+	// 휴면 회원 정보 보관 (archive 저장소 호출 자리)
+	protected void archive(InactiveUserCandidate user) throws InterruptedException {
+		sleep(properties.getArchiveLatencyMs());
+	}
+
+	private static void sleep(long millis) throws InterruptedException {
+		if (millis > 0) {
+			Thread.sleep(millis); // 중단되면 예외로 전파해서 chunk를 rollback 한다.
+		}
+	}
+}
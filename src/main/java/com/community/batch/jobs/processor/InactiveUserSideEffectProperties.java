@@ -0,0 +1,17 @@
+package com.community.batch.jobs.processor;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "batch.inactive-user.side-effects")
+public class InactiveUserSideEffectProperties {
+
+	// 휴면 전환 안내 발송(외부 알림 API) 한 건에 걸리는 시간 (0: 지연 없음)
+	private long notificationLatencyMs = 50;
+
+	// 회원 정보 보관(archive 저장소) 한 건에 걸리는 시간 (0: 지연 없음)
+	private long archiveLatencyMs = 50;
+}
@@ -0,0 +1,67 @@
+package com.community.batch.jobs.readers;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 한 스레드에서 읽는 JpaKeysetPagingItemReader 를 multi-thread step 에서 사용할 수 있도록 감싼 reader.
+ * - 조회한 페이지를 QueueItemReader 에 담아 두고, worker 스레드들은 QueueItemReader.read() 로 item 을 CAS 로 선점한다.
+ *   item 마다 하나의 monitor 에서 대기하지 않는다.
+ * - 페이지를 모두 읽은 스레드 하나만 lock 을 잡고 다음 페이지를 조회한다. (lock 은 pageSize 개의 item 마다 한 번)
+ * - 어떤 item 까지 commit 되었는지 보장할 수 없으므로 delegate 의 상태는 저장하지 않는다. (saveState = false)
+ */
+public class ConcurrentKeysetItemReader<T> implements ItemStreamReader<T> {
+
+	private final JpaKeysetPagingItemReader<T> delegate;
+	private final Object pageLock = new Object();
+
+	private volatile QueueItemReader<T> page = new QueueItemReader<>(Collections.emptyList());
+	private volatile boolean exhausted = false;
+
+	public ConcurrentKeysetItemReader(JpaKeysetPagingItemReader<T> delegate) {
+		delegate.setSaveState(false);
+		this.delegate = delegate;
+	}
+
+	@Override
+	public T read() throws Exception {
+		while (true) {
+			QueueItemReader<T> current = page;
+			T item = current.read();
+			if (item != null) {
+				return item;
+			}
+			synchronized (pageLock) {
+				if (page == current) { // 다른 스레드가 이미 다음 페이지를 가져왔으면 그 페이지에서 다시 선점한다.
+					if (exhausted) {
+						return null;
+					}
+					List<T> next = delegate.readPage();
+					exhausted = next.isEmpty();
+					page = new QueueItemReader<>(next);
+				}
+			}
+		}
+	}
+
+	@Override
+	public void open(ExecutionContext executionContext) throws ItemStreamException {
+		delegate.open(executionContext);
+		page = new QueueItemReader<>(Collections.emptyList());
+		exhausted = false;
+	}
+
+	@Override
+	public void update(ExecutionContext executionContext) throws ItemStreamException {
+		delegate.update(executionContext);
+	}
+
+	@Override
+	public void close() throws ItemStreamException {
+		delegate.close();
+	}
+}
@@ -0,0 +1,240 @@
+package com.community.batch.jobs.readers;
+
+import com.community.batch.datasource.DataSourceRouting;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * key(idx) 기준으로 페이지를 읽어오는 reader. (where key > :lastKey order by key limit pageSize)
+ * - 전체 데이터를 미리 메모리에 올려두는 ListItemReader와 달리, 한 페이지 분량만 heap에 유지한다.
+ * - offset 기반 페이징(JpaPagingItemReader)과 달리 이미 처리되어 조건에서 빠진 row가 있어도 건너뛰는 데이터가 없다.
+ * - 마지막으로 읽은 key를 ExecutionContext에 저장하므로, 재시작시 그 다음 key부터 이어서 읽는다.
+ *
+ * - prefetchPages를 지정하면 별도의 스레드가 다음 페이지들을 미리 조회해 두므로, process/write 하는 동안에도 DB 조회가 진행된다.
+ * - readFromReplica를 지정하면 페이지 조회를 replica DB 로 보낸다. (RoutingDataSource 를 사용할 때만 의미가 있다)
+ *
+ * queryString은 반드시 :lastKey 파라미터를 사용하고 key 오름차순으로 정렬해야 한다.
+ * read() 는 한 스레드에서 호출해야 한다. multi-thread step 에서는 ConcurrentKeysetItemReader 로 감싼다.
+ */
+public class JpaKeysetPagingItemReader<T> extends AbstractItemCountingItemStreamItemReader<T> {
+
+	public static final String PARAM_LAST_KEY = "lastKey";
+
+	private static final String LAST_KEY = "last.key";
+
+	private EntityManagerFactory entityManagerFactory;
+	private EntityManager entityManager;
+
+	private String queryString;
+	private Map<String, Object> parameterValues = new HashMap<>();
+	private Function<T, Long> keyExtractor;
+	private int pageSize = 100;
+	private long startKey = 0L;
+	private int prefetchPages = 0;
+	private boolean readFromReplica = false;
+
+	private long lastKey;
+	private List<T> page = Collections.emptyList();
+	private int current = 0;
+	private boolean exhausted = false;
+
+	private BlockingQueue<List<T>> prefetched;
+	private Thread prefetchThread;
+	private volatile Exception prefetchError;
+
+	public JpaKeysetPagingItemReader() {
+		setName(ClassUtils.getShortName(JpaKeysetPagingItemReader.class));
+	}
+
+	public void setEntityManagerFactory(EntityManagerFactory entityManagerFactory) {
+		this.entityManagerFactory = entityManagerFactory;
+	}
+
+	public void setQueryString(String queryString) {
+		this.queryString = queryString;
+	}
+
+	public void setParameterValues(Map<String, Object> parameterValues) {
+		this.parameterValues = parameterValues;
+	}
+
+	public void setKeyExtractor(Function<T, Long> keyExtractor) {
+		this.keyExtractor = keyExtractor;
+	}
+
+	public void setPageSize(int pageSize) {
+		Assert.isTrue(pageSize > 0, "pageSize must be greater than zero");
+		this.pageSize = pageSize;
+	}
+
+	// 처음 실행시 사용할 key의 하한 값 (key > startKey)
+	public void setStartKey(long startKey) {
+		this.startKey = startKey;
+	}
+
+	// 미리 조회해 둘 페이지 수 (0 이면 read 하는 스레드에서 직접 조회한다)
+	public void setPrefetchPages(int prefetchPages) {
+		Assert.isTrue(prefetchPages >= 0, "prefetchPages must not be negative");
+		this.prefetchPages = prefetchPages;
+	}
+
+	// reader 의 EntityManager 는 chunk transaction 과 별개이므로, 조회할 때 얻는 connection 만 replica 로 보낼 수 있다.
+	public void setReadFromReplica(boolean readFromReplica) {
+		this.readFromReplica = readFromReplica;
+	}
+
+	public long getLastKey() {
+		return lastKey;
+	}
+
+	/**
+	 * 최대 pageSize 개의 item 을 한 번에 읽는다. 더 읽을 item 이 없으면 빈 List 를 반환한다.
+	 * (multi-thread step 에서는 ConcurrentKeysetItemReader 가 한 스레드씩 호출해서 페이지 단위로 나눠준다)
+	 */
+	public List<T> readPage() throws Exception {
+		List<T> items = new ArrayList<>(pageSize);
+		T item;
+		while (items.size() < pageSize && (item = read()) != null) {
+			items.add(item);
+		}
+		return items;
+	}
+
+	@Override
+	protected T doRead() throws Exception {
+		if (current >= page.size()) {
+			if (exhausted) {
+				return null;
+			}
+			page = prefetchPages > 0 ? takePrefetchedPage() : fetchPage(entityManager, lastKey);
+			current = 0;
+			exhausted = page.size() < pageSize;
+			if (page.isEmpty()) {
+				return null;
+			}
+		}
+		T item = page.get(current++);
+		lastKey = keyExtractor.apply(item); // 실제로 읽어간 item의 key만 저장하므로 prefetch 중이어도 재시작 위치는 정확하다.
+		return item;
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<T> fetchPage(EntityManager entityManager, long afterKey) {
+		// 이전 페이지의 entity가 persistence context에 계속 쌓이지 않도록 매 페이지마다 비워준다.
+		entityManager.clear();
+
+		Query query = entityManager.createQuery(queryString);
+		parameterValues.forEach(query::setParameter);
+		query.setParameter(PARAM_LAST_KEY, afterKey);
+		query.setMaxResults(pageSize);
+		return readFromReplica ? DataSourceRouting.onReplica(query::getResultList) : query.getResultList();
+	}
+
+	private List<T> takePrefetchedPage() throws Exception {
+		if (prefetchThread == null) { // 재시작시 복원된 lastKey 이후부터 조회하도록 첫 read 시점에 시작한다.
+			startPrefetch();
+		}
+		List<T> next;
+		while ((next = prefetched.poll(100, TimeUnit.MILLISECONDS)) == null) {
+			if (prefetchError != null) {
+				throw prefetchError;
+			}
+		}
+		if (prefetchError != null) {
+			throw prefetchError;
+		}
+		return next;
+	}
+
+	private void startPrefetch() {
+		prefetched = new ArrayBlockingQueue<>(prefetchPages);
+		long fromKey = lastKey;
+		prefetchThread = new Thread(() -> {
+			EntityManager prefetchEntityManager = entityManagerFactory.createEntityManager();
+			try {
+				long afterKey = fromKey;
+				List<T> next;
+				do {
+					next = fetchPage(prefetchEntityManager, afterKey);
+					prefetched.put(next);
+					if (!next.isEmpty()) {
+						afterKey = keyExtractor.apply(next.get(next.size() - 1));
+					}
+				} while (next.size() == pageSize);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (Exception e) {
+				prefetchError = e;
+			} finally {
+				prefetchEntityManager.close();
+			}
+		}, getExecutionContextKey("prefetch"));
+		prefetchThread.setDaemon(true);
+		prefetchThread.start();
+	}
+
+	@Override
+	protected void doOpen() {
+		Assert.notNull(entityManagerFactory, "EntityManagerFactory is required");
+		Assert.hasText(queryString, "Query string is required");
+		Assert.notNull(keyExtractor, "Key extractor is required");
+
+		entityManager = entityManagerFactory.createEntityManager();
+		lastKey = startKey;
+		page = Collections.emptyList();
+		current = 0;
+		exhausted = false;
+		prefetchError = null;
+	}
+
+	@Override
+	protected void doClose() throws InterruptedException {
+		if (prefetchThread != null) {
+			prefetchThread.interrupt();
+			prefetchThread.join();
+			prefetchThread = null;
+		}
+		if (entityManager != null) {
+			entityManager.close();
+			entityManager = null;
+		}
+	}
+
+	@Override
+	public void open(ExecutionContext executionContext) throws ItemStreamException {
+		super.open(executionContext);
+		String key = getExecutionContextKey(LAST_KEY);
+		if (isSaveState() && executionContext.containsKey(key)) {
+			lastKey = executionContext.getLong(key);
+		}
+	}
+
+	@Override
+	public void update(ExecutionContext executionContext) throws ItemStreamException {
+		super.update(executionContext);
+		if (isSaveState()) {
+			executionContext.putLong(getExecutionContextKey(LAST_KEY), lastKey);
+		}
+	}
+
+	// 재시작시 read.count 만큼 다시 읽어서 건너뛰지 않고, 저장된 lastKey 부터 조회한다.
+	@Override
+	protected void jumpToItem(int itemIndex) {
+	}
+}
@@ -5,20 +5,57 @@ import org.springframework.batch.item.NonTransientResourceException;
 import org.springframework.batch.item.ParseException;
 import org.springframework.batch.item.UnexpectedInputException;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * 여러 스레드에서 동시에 read() 해도 안전한 lock-free reader.
+ * - 데이터는 배열에 담아두고 AtomicInteger cursor 로 다음에 읽을 위치를 선점한다(CAS).
+ * - synchronized 로 감싼 ListItemReader 처럼 하나의 monitor 에서 스레드들이 대기하지 않는다.
+ * - read(n)을 사용하면 chunk 하나 분량의 item을 한 번의 CAS 로 가져갈 수 있다.
+ */
 public class QueueItemReader<T> implements ItemReader<T> {
 
-	private Queue<T> queue;
+	private final Object[] items;
+	private final AtomicInteger cursor = new AtomicInteger();
 
 	public QueueItemReader(List<T> data) {
-		this.queue = new LinkedList<>(data);
+		this.items = data.toArray();
 	}
 
 	@Override
+	@SuppressWarnings("unchecked")
 	public T read() throws Exception, UnexpectedInputException, ParseException, NonTransientResourceException {
-		return queue.poll();
+		if (cursor.get() >= items.length) { // 모두 읽은 뒤에 cursor가 계속 증가하지 않도록 먼저 확인한다.
+			return null;
+		}
+		int index = cursor.getAndIncrement();
+		return index < items.length ? (T) items[index] : null;
+	}
+
+	/**
+	 * 최대 n 개의 item을 한 번에 가져온다. 남은 item이 없으면 빈 List를 반환한다.
+	 */
+	@SuppressWarnings("unchecked")
+	public List<T> read(int n) {
+		if (n <= 0 || cursor.get() >= items.length) {
+			return Collections.emptyList();
+		}
+		int from = cursor.getAndAdd(n);
+		if (from >= items.length) {
+			return Collections.emptyList();
+		}
+		int to = Math.min(from + n, items.length);
+		List<T> chunk = new ArrayList<>(to - from);
+		for (int i = from; i < to; i++) {
+			chunk.add((T) items[i]);
+		}
+		return chunk;
+	}
+
+	public int size() {
+		return items.length;
 	}
 }
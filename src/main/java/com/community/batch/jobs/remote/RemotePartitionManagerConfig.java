@@ -0,0 +1,76 @@
+package com.community.batch.jobs.remote;
+
+import org.springframework.batch.integration.partition.MessageChannelPartitionHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.integration.channel.DirectChannel;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.core.MessagingTemplate;
+import org.springframework.integration.dsl.IntegrationFlow;
+import org.springframework.integration.dsl.IntegrationFlows;
+import org.springframework.integration.jms.dsl.Jms;
+
+import javax.jms.ConnectionFactory;
+
+/**
+ * manager 쪽 설정. partitionerStep 은 이 PartitionHandler 가 있으면 로컬 taskExecutor 대신 사용한다.
+ *
+ * partitionRequests -> (JMS request queue) -> worker
+ * worker -> (JMS reply queue) -> aggregator(partitionHandler) -> partitionReplies
+ */
+@Configuration
+@ConditionalOnProperty(name = "batch.remote.manager", havingValue = "true")
+@EnableConfigurationProperties(RemotePartitionProperties.class)
+public class RemotePartitionManagerConfig {
+
+	private final RemotePartitionProperties properties;
+
+	public RemotePartitionManagerConfig(RemotePartitionProperties properties) {
+		this.properties = properties;
+	}
+
+	@Bean
+	public DirectChannel partitionRequests() {
+		return new DirectChannel();
+	}
+
+	@Bean
+	public QueueChannel partitionReplies() {
+		return new QueueChannel();
+	}
+
+	@Bean
+	public MessageChannelPartitionHandler remotePartitionHandler(
+		@Value("${batch.inactive-user.grid-size:0}") int gridSize
+	) {
+		MessagingTemplate messagingTemplate = new MessagingTemplate(partitionRequests());
+		messagingTemplate.setReceiveTimeout(properties.getTimeoutMillis());
+
+		MessageChannelPartitionHandler partitionHandler = new MessageChannelPartitionHandler();
+		partitionHandler.setStepName("inactiveJobStep"); // worker 에서 BeanFactoryStepLocator 로 찾을 Step 의 bean 이름
+		partitionHandler.setGridSize(gridSize > 0 ? gridSize : Runtime.getRuntime().availableProcessors());
+		partitionHandler.setMessagingOperations(messagingTemplate);
+		partitionHandler.setReplyChannel(partitionReplies());
+		return partitionHandler;
+	}
+
+	@Bean
+	public IntegrationFlow partitionRequestFlow(ConnectionFactory connectionFactory) {
+		return IntegrationFlows.from(partitionRequests())
+			.handle(Jms.outboundAdapter(connectionFactory).destination(properties.getRequestQueue()))
+			.get();
+	}
+
+	// worker 들의 응답을 partition 수 만큼 모아서(aggregate) 하나의 메시지로 partitionHandler 에 전달한다.
+	@Bean
+	public IntegrationFlow partitionReplyFlow(ConnectionFactory connectionFactory,
+		MessageChannelPartitionHandler remotePartitionHandler) {
+		return IntegrationFlows.from(Jms.messageDrivenChannelAdapter(connectionFactory).destination(properties.getReplyQueue()))
+			.aggregate(aggregator -> aggregator.processor(remotePartitionHandler, "aggregate"))
+			.channel(partitionReplies())
+			.get();
+	}
+}
@@ -0,0 +1,31 @@
+package com.community.batch.jobs.remote;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 여러 JVM 으로 partition 을 나누어 실행하기 위한 설정.
+ * manager: partition 의 StepExecution 요청을 request queue 로 보내고 reply queue 에서 결과를 모은다.
+ * worker: request queue 에서 요청을 받아 inactiveJobStep 을 실행하고 결과를 reply queue 로 보낸다.
+ * (manager, worker 모두 같은 job repository DB를 사용해야 한다)
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "batch.remote")
+public class RemotePartitionProperties {
+
+	private boolean manager = false;
+
+	private boolean worker = false;
+
+	private String requestQueue = "inactive-user-partition-requests";
+
+	private String replyQueue = "inactive-user-partition-replies";
+
+	// 모든 partition 의 결과를 기다리는 최대 시간. 넘으면 step은 실패하고, job 재시작시 끝나지 않은 partition 만 다시 실행된다.
+	private long timeoutMillis = 60 * 60 * 1000L;
+
+	// worker JVM 하나에서 동시에 실행할 partition 수
+	private int workerConcurrency = Runtime.getRuntime().availableProcessors();
+}
@@ -0,0 +1,60 @@
+package com.community.batch.jobs.remote;
+
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.integration.partition.BeanFactoryStepLocator;
+import org.springframework.batch.integration.partition.StepExecutionRequestHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.integration.dsl.IntegrationFlow;
+import org.springframework.integration.dsl.IntegrationFlows;
+import org.springframework.integration.jms.dsl.Jms;
+
+import javax.jms.ConnectionFactory;
+
+/**
+ * worker 쪽 설정. request queue 의 StepExecutionRequest 를 받아 inactiveJobStep 을 실행하고 결과 StepExecution 을 reply queue 로 보낸다.
+ *
+ * 요청 메시지는 transacted session 으로 받기 때문에, step 실행 도중 worker 가 죽으면 메시지가 commit 되지 않고 다른 worker 로 재전달된다.
+ * 재전달 받은 worker 는 같은 StepExecution 의 ExecutionContext(마지막으로 commit 된 lastKey)부터 이어서 실행하고,
+ * 이미 INACTIVE 로 바뀐 회원은 조회 조건(status = ACTIVE)에서 빠지므로 두 번 전환되지 않는다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "batch.remote.worker", havingValue = "true")
+@EnableConfigurationProperties(RemotePartitionProperties.class)
+public class RemotePartitionWorkerConfig {
+
+	private final RemotePartitionProperties properties;
+
+	public RemotePartitionWorkerConfig(RemotePartitionProperties properties) {
+		this.properties = properties;
+	}
+
+	@Bean
+	public StepExecutionRequestHandler stepExecutionRequestHandler(JobExplorer jobExplorer,
+		BeanFactoryStepLocator stepLocator) {
+		StepExecutionRequestHandler handler = new StepExecutionRequestHandler();
+		handler.setJobExplorer(jobExplorer);
+		handler.setStepLocator(stepLocator);
+		return handler;
+	}
+
+	@Bean
+	public BeanFactoryStepLocator stepLocator() {
+		return new BeanFactoryStepLocator();
+	}
+
+	@Bean
+	public IntegrationFlow partitionWorkerFlow(ConnectionFactory connectionFactory,
+		StepExecutionRequestHandler stepExecutionRequestHandler) {
+		return IntegrationFlows.from(Jms.messageDrivenChannelAdapter(connectionFactory)
+				.destination(properties.getRequestQueue())
+				.configureListenerContainer(container -> container
+					.sessionTransacted(true)
+					.concurrentConsumers(properties.getWorkerConcurrency())))
+			.handle(stepExecutionRequestHandler, "handle")
+			.handle(Jms.outboundAdapter(connectionFactory).destination(properties.getReplyQueue()))
+			.get();
+	}
+}
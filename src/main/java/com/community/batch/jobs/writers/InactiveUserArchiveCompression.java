@@ -0,0 +1,6 @@
+package com.community.batch.jobs.writers;
+
+public enum InactiveUserArchiveCompression {
+	NONE,    // block 을 그대로 기록
+	DEFLATE  // block 단위 Deflater(BEST_SPEED) 압축. 압축 결과가 더 크면 해당 block 은 압축하지 않고 기록한다
+}
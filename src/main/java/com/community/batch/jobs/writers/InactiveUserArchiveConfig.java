@@ -0,0 +1,28 @@
+package com.community.batch.jobs.writers;
+
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Paths;
+
+@Configuration
+@EnableConfigurationProperties(InactiveUserArchiveProperties.class)
+public class InactiveUserArchiveConfig {
+
+	// partition(step) 마다 별도의 파일에 기록한다. 재시작해도 JobInstance 와 step 이름이 같으므로 같은 파일에 이어서 기록한다.
+	@Bean
+	@StepScope
+	public InactiveUserArchiveWriter inactiveUserArchiveWriter(InactiveUserArchiveProperties properties,
+		@Value("#{stepExecution}") StepExecution stepExecution) {
+		String filePrefix = "inactive-users-" + stepExecution.getJobExecution().getJobId()
+			+ "-" + stepExecution.getStepName().replace(':', '-');
+		InactiveUserArchiveWriter writer = new InactiveUserArchiveWriter(Paths.get(properties.getDirectory()), filePrefix,
+			properties.getCompression(), properties.getMaxFileBytes());
+		writer.setForceOnCommit(properties.isForceOnCommit());
+		return writer;
+	}
+}
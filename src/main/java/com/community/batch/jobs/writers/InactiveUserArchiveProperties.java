@@ -0,0 +1,25 @@
+package com.community.batch.jobs.writers;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "batch.inactive-user.archive")
+public class InactiveUserArchiveProperties {
+
+	// true 이면 status 변경과 같은 chunk 에서 휴면 전환된 회원을 archive 파일에도 기록한다.
+	private boolean enabled = false;
+
+	// archive 파일을 만들 디렉토리
+	private String directory = "build/archive";
+
+	private InactiveUserArchiveCompression compression = InactiveUserArchiveCompression.DEFLATE;
+
+	// 파일 크기가 이 값을 넘으면 다음 번호의 파일로 넘어간다.
+	private long maxFileBytes = 64L * 1024 * 1024;
+
+	// chunk commit 직전에 파일을 디스크에 강제로 기록한다. (false 이면 OS 장애시 checkpoint 보다 파일이 짧을 수 있다)
+	private boolean forceOnCommit = true;
+}
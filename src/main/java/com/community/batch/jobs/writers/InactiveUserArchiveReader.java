@@ -0,0 +1,83 @@
+package com.community.batch.jobs.writers;
+
+import com.community.batch.domain.InactiveUserCandidate;
+import com.community.batch.domain.enums.Grade;
+import com.community.batch.domain.enums.SocialType;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * InactiveUserArchiveWriter 가 기록한 archive 파일을 읽는다. (감사 대응시 확인, 테스트 용도)
+ */
+public final class InactiveUserArchiveReader {
+
+	private InactiveUserArchiveReader() {
+	}
+
+	public static List<InactiveUserCandidate> read(Path file) throws IOException {
+		List<InactiveUserCandidate> users = new ArrayList<>();
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.remaining() < Integer.BYTES || buffer.getInt() != InactiveUserArchiveWriter.FILE_MAGIC) {
+				throw new IOException("not an inactive user archive: " + file);
+			}
+			while (buffer.remaining() >= InactiveUserArchiveWriter.BLOCK_HEADER_BYTES) {
+				byte codec = buffer.get();
+				int recordCount = buffer.getInt();
+				int rawLength = buffer.getInt();
+				int storedLength = buffer.getInt();
+				byte[] stored = new byte[storedLength];
+				buffer.get(stored);
+				readBlock(codec == InactiveUserArchiveWriter.CODEC_DEFLATE ? inflate(stored, rawLength) : stored, recordCount, users);
+			}
+		}
+		return users;
+	}
+
+	private static void readBlock(byte[] raw, int recordCount, List<InactiveUserCandidate> users) throws IOException {
+		ByteBuffer block = ByteBuffer.wrap(raw);
+		for (int i = 0; i < recordCount; i++) {
+			int length = block.getInt();
+			DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw, block.position(), length));
+			long idx = in.readLong();
+			String grade = in.readUTF();
+			String socialType = in.readUTF();
+			users.add(new InactiveUserCandidate(idx,
+				grade.isEmpty() ? null : Grade.valueOf(grade),
+				socialType.isEmpty() ? null : SocialType.valueOf(socialType)));
+			block.position(block.position() + length);
+		}
+	}
+
+	private static byte[] inflate(byte[] stored, int rawLength) throws IOException {
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(stored);
+			byte[] raw = new byte[rawLength];
+			int length = 0;
+			while (length < rawLength && !inflater.finished()) {
+				int inflated = inflater.inflate(raw, length, rawLength - length);
+				if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					throw new IOException("truncated archive block");
+				}
+				length += inflated;
+			}
+			return raw;
+		} catch (DataFormatException e) {
+			throw new IOException("corrupted archive block", e);
+		} finally {
+			inflater.end();
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package com.community.batch.jobs.writers;
+
+import com.community.batch.domain.enums.UserStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.jdbc.JdbcUpdateAffectedIncorrectNumberOfRowsException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * chunk 단위로 한 번의 UPDATE ... WHERE idx IN (...) 을 실행하는 writer.
+ * - saveAll()처럼 entity 마다 merge, dirty checking, 단건 UPDATE 를 수행하지 않는다.
+ * - persistence context를 거치지 않고 JDBC로 바로 실행되지만, step의 transaction(JpaTransactionManager)에 참여한다.
+ * - 이미 전환된 row 는 다시 UPDATE 하지 않으므로, 재시작 후 같은 item 이 다시 write 되어도 상태 전환은 한 번만 일어난다.
+ * - 변경된 row 와 이미 전환된 row 를 합쳐도 chunk 의 item 수보다 적으면 (삭제된 회원 등) chunk 를 실패시킨다.
+ * - User.setInactive() (SAVE_ALL 모드) 와 같은 컬럼(status, updated_date)을 변경한다.
+ * - item 에서는 idx만 사용하므로 User entity 뿐 아니라 InactiveUserCandidate 같은 projection 도 write 할 수 있다.
+ */
+@Slf4j
+public class InactiveUserBulkUpdateWriter<T> implements ItemWriter<T> {
+
+	private static final String UPDATE_SQL =
+		"update user set status = :status, updated_date = :updatedDate where idx in (:idxs) and status <> :status";
+
+	private static final String COUNT_SQL = "select count(*) from user where idx in (:idxs) and status = :status";
+
+	private final NamedParameterJdbcTemplate jdbcTemplate;
+	private final ToLongFunction<? super T> idxExtractor;
+
+	public InactiveUserBulkUpdateWriter(DataSource dataSource, ToLongFunction<? super T> idxExtractor) {
+		this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+		this.idxExtractor = idxExtractor;
+	}
+
+	@Override
+	public void write(List<? extends T> items) {
+		if (items.isEmpty()) {
+			return;
+		}
+		List<Long> idxs = new ArrayList<>(items.size());
+		for (T item : items) {
+			idxs.add(idxExtractor.applyAsLong(item));
+		}
+
+		MapSqlParameterSource params = new MapSqlParameterSource()
+			.addValue("status", UserStatus.INACTIVE.name())
+			.addValue("updatedDate", Timestamp.valueOf(LocalDateTime.now()))
+			.addValue("idxs", idxs);
+		int updated = jdbcTemplate.update(UPDATE_SQL, params);
+
+		if (updated == items.size()) {
+			return;
+		}
+		// step의 write count는 chunk의 item 수로 집계되므로, 재시작 등으로 이미 전환된 row 가 아니면 chunk 를 rollback 한다.
+		int inactive = jdbcTemplate.queryForObject(COUNT_SQL, params, Integer.class);
+		if (inactive != items.size()) {
+			throw new JdbcUpdateAffectedIncorrectNumberOfRowsException(UPDATE_SQL, items.size(), inactive);
+		}
+		log.info("bulk update skipped {} already inactive users", items.size() - updated);
+	}
+}
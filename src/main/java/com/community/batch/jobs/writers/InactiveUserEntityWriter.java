@@ -0,0 +1,54 @@
+package com.community.batch.jobs.writers;
+
+import com.community.batch.domain.InactiveUserCandidate;
+import com.community.batch.domain.User;
+import com.community.batch.domain.enums.UserStatus;
+import com.community.batch.domain.repository.UserRepository;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * SAVE_ALL 모드의 writer. chunk 의 idx 로 User entity를 조회한 뒤 setInactive() 하여 saveAll() 한다.
+ * (entity 단위 merge 와 UPDATE 가 필요한 경우에만 사용한다. 기본은 InactiveUserBulkUpdateWriter)
+ * - chunk 마다 flush 후 persistence context 를 비우므로, 조회한 entity 가 step 이 끝날 때까지 쌓이지 않는다.
+ * - hibernate.jdbc.batch_size 를 지정하면 (prod profile) flush 시점의 UPDATE 들이 JDBC batch 하나로 전송된다.
+ * - InactiveUserBulkUpdateWriter 와 같이 이미 전환된 회원은 다시 UPDATE 하지 않고, 조회되지 않는 회원이 있으면 chunk 를 실패시킨다.
+ */
+public class InactiveUserEntityWriter implements ItemWriter<InactiveUserCandidate> {
+
+	private final UserRepository userRepository;
+	private final EntityManager entityManager;
+
+	public InactiveUserEntityWriter(UserRepository userRepository, EntityManagerFactory entityManagerFactory) {
+		this.userRepository = userRepository;
+		// 현재 transaction(chunk)에 묶인 EntityManager 를 사용한다.
+		this.entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+	}
+
+	@Override
+	public void write(List<? extends InactiveUserCandidate> candidates) {
+		List<Long> idxs = new ArrayList<>(candidates.size());
+		for (InactiveUserCandidate candidate : candidates) {
+			idxs.add(candidate.getIdx());
+		}
+		List<User> users = userRepository.findAllById(idxs);
+		if (users.size() != idxs.size()) {
+			throw new IncorrectResultSizeDataAccessException(idxs.size(), users.size());
+		}
+		List<User> activeUsers = users.stream()
+			.filter(user -> user.getStatus() != UserStatus.INACTIVE)
+			.map(User::setInactive)
+			.collect(Collectors.toList());
+		userRepository.saveAll(activeUsers);
+
+		entityManager.flush();
+		entityManager.clear();
+	}
+}
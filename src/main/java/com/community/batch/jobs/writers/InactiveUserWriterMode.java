@@ -0,0 +1,6 @@
+package com.community.batch.jobs.writers;
+
+public enum InactiveUserWriterMode {
+	BULK_UPDATE, // chunk 당 UPDATE ... WHERE idx IN (...) 한 번
+	SAVE_ALL     // idx 로 entity 조회 후 userRepository.saveAll() (entity 단위 merge & UPDATE)
+}
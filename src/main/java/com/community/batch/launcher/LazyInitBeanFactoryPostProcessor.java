@@ -0,0 +1,52 @@
+package com.community.batch.launcher;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.jdbc.AbstractDataSourceInitializer;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * application bean 을 lazy-init 으로 바꾸는 BeanFactoryPostProcessor. (Spring Boot 2.0 에는 spring.main.lazy-initialization 이 없다)
+ * context 기동시에는 singleton 을 만들지 않고, 실행할 Job 을 getBean 할 때 그 job 이 참조하는 bean 만 생성된다.
+ * 그래서 job config 에 @ConditionalOnProperty 를 붙이지 않아도 (테스트에서는 모든 job 의 bean 이 필요하다) 실행하지 않는 job 의 bean 은 만들어지지 않는다.
+ * - BeanPostProcessor, BeanFactoryPostProcessor 는 lazy 설정과 관계없이 먼저 생성된다.
+ * - 내부 infrastructure bean(ROLE_INFRASTRUCTURE)과, 다른 bean 이 참조하지 않아도 기동시에 실행되어야 하는
+ *   eagerTypes(BATCH_* 테이블 초기화 등)의 bean 은 그대로 둔다.
+ */
+public class LazyInitBeanFactoryPostProcessor implements BeanFactoryPostProcessor {
+
+	private static final List<Class<?>> DEFAULT_EAGER_TYPES = Arrays.asList(SmartInitializingSingleton.class,
+		AbstractDataSourceInitializer.class);
+
+	private final List<Class<?>> eagerTypes;
+
+	public LazyInitBeanFactoryPostProcessor() {
+		this(DEFAULT_EAGER_TYPES);
+	}
+
+	public LazyInitBeanFactoryPostProcessor(List<Class<?>> eagerTypes) {
+		this.eagerTypes = eagerTypes;
+	}
+
+	@Override
+	public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+		Set<String> eagerBeanNames = new HashSet<>();
+		for (Class<?> eagerType : eagerTypes) {
+			// allowEagerInit=false: 타입을 확인하려고 FactoryBean 이나 @Bean method 의 bean 을 만들지 않는다.
+			eagerBeanNames.addAll(Arrays.asList(beanFactory.getBeanNamesForType(eagerType, true, false)));
+		}
+		for (String beanName : beanFactory.getBeanDefinitionNames()) {
+			BeanDefinition beanDefinition = beanFactory.getBeanDefinition(beanName);
+			if (beanDefinition.getRole() != BeanDefinition.ROLE_INFRASTRUCTURE && !eagerBeanNames.contains(beanName)) {
+				beanDefinition.setLazyInit(true);
+			}
+		}
+	}
+}
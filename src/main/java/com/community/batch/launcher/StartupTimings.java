@@ -0,0 +1,66 @@
+package com.community.batch.launcher;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BatchLauncherApplication 의 구간별 소요 시간.
+ * - jvm: JVM 시작 ~ main 진입 (class loading. CDS archive 를 사용하면 줄어든다)
+ * - context: main 진입 ~ ApplicationContext refresh 완료
+ * - job: Job bean 생성(lazy-init 이면 이 때 job 의 bean 들이 만들어진다) ~ Job 종료
+ */
+@Slf4j
+public class StartupTimings {
+
+	private final long jvmStartMillis = ManagementFactory.getRuntimeMXBean().getStartTime();
+	private final long mainStartMillis = System.currentTimeMillis();
+	private long contextReadyMillis;
+	private long jobStartMillis;
+	private long jobEndMillis;
+
+	public void contextReady() {
+		contextReadyMillis = System.currentTimeMillis();
+	}
+
+	public void jobStarted() {
+		jobStartMillis = System.currentTimeMillis();
+	}
+
+	public void jobFinished() {
+		jobEndMillis = System.currentTimeMillis();
+	}
+
+	public long getJvmMillis() {
+		return mainStartMillis - jvmStartMillis;
+	}
+
+	public long getContextMillis() {
+		return contextReadyMillis - mainStartMillis;
+	}
+
+	public long getJobMillis() {
+		return jobEndMillis - jobStartMillis;
+	}
+
+	// job 이 끝나면서 metric 을 export 하므로 job 실행 전에 기록한다.
+	public void record(MeterRegistry meterRegistry) {
+		record(meterRegistry, "jvm", getJvmMillis());
+		record(meterRegistry, "context", getContextMillis());
+	}
+
+	private static void record(MeterRegistry meterRegistry, String phase, long millis) {
+		Timer.builder("batch.launcher.startup")
+			.tag("phase", phase)
+			.register(meterRegistry)
+			.record(millis, TimeUnit.MILLISECONDS);
+	}
+
+	public void report(String jobName, int createdBeans, int beanDefinitions) {
+		log.info("{} - jvm: {}ms, context: {}ms, job: {}ms, total: {}ms (beans created: {}/{})", jobName,
+			getJvmMillis(), getContextMillis(), getJobMillis(), jobEndMillis - jvmStartMillis, createdBeans, beanDefinitions);
+	}
+}
@@ -0,0 +1,34 @@
+package com.community.batch;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class BatchLauncherApplicationTest {
+
+	// 다른 테스트의 context 와 같은 in-memory DB 를 쓰지 않도록 DB 를 따로 지정한다.
+	private static final String[] COMMON_ARGS = {
+		"--spring.datasource.url=jdbc:h2:mem:launcher;DB_CLOSE_ON_EXIT=FALSE",
+		"--batch.inactive-user.simulated-delay-ms=0",
+		"--batch.inactive-user.side-effects.notification-latency-ms=0",
+		"--batch.inactive-user.side-effects.archive-latency-ms=0",
+		"--batch.metrics.export-file="
+	};
+
+	@Test
+	public void 지정한_job_을_실행하고_성공하면_0_을_반환한다() {
+		assertEquals(0, BatchLauncherApplication.run(args("--spring.batch.job.names=inactiveUserPartitionJob", "runDate=2020-07-11")));
+	}
+
+	@Test
+	public void 없는_job_을_지정하면_1_을_반환한다() {
+		assertEquals(1, BatchLauncherApplication.run(args("--spring.batch.job.names=unknownJob")));
+	}
+
+	private static String[] args(String... args) {
+		String[] merged = new String[COMMON_ARGS.length + args.length];
+		System.arraycopy(COMMON_ARGS, 0, merged, 0, COMMON_ARGS.length);
+		System.arraycopy(args, 0, merged, COMMON_ARGS.length, args.length);
+		return merged;
+	}
+}
@@ -0,0 +1,81 @@
+package com.community.batch;
+
+import com.community.batch.domain.enums.UserStatus;
+import com.community.batch.domain.repository.UserRepository;
+import com.community.batch.jobs.InactiveUserPartitionJobConfig;
+import com.community.batch.jobs.metadata.CoalescingJobRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.configuration.annotation.BatchConfigurer;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.test.JobLauncherTestUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDateTime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * COALESCING 모드에서도 job 이 끝나면 BATCH_STEP_EXECUTION 에 최종 상태(write count 등)가 남는다.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = { BatchApplication.class, InactiveUserPartitionJobConfig.class }, properties = {
+	"batch.job-repository.mode=COALESCING",
+	"batch.job-repository.flush-every-chunks=4",
+	"batch.job-repository.flush-interval-millis=60000",
+	"batch.inactive-user.grid-size=1",
+	"batch.chunk.initial-size=1",
+	"batch.chunk.min-size=1",
+	"batch.chunk.max-size=1",
+	"batch.inactive-user.simulated-delay-ms=0",
+	"batch.inactive-user.side-effects.notification-latency-ms=0",
+	"batch.inactive-user.side-effects.archive-latency-ms=0"
+})
+public class InactiveUserCoalescingJobRepositoryTest {
+
+	@Autowired
+	private JobLauncherTestUtils jobLauncherTestUtils;
+
+	@Autowired
+	private JobExplorer jobExplorer;
+
+	@Autowired
+	private BatchConfigurer batchConfigurer;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	public void 모아서_기록해도_종료된_step_의_상태는_모두_기록된다() throws Exception {
+		int candidates = userRepository.findByUpdatedDateBeforeAndStatus(LocalDateTime.now().minusYears(1), UserStatus.ACTIVE).size();
+
+		JobExecution jobExecution = jobLauncherTestUtils.launchJob();
+
+		assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+		assertEquals(0, userRepository.findByUpdatedDateBeforeAndStatus(LocalDateTime.now().minusYears(1), UserStatus.ACTIVE).size());
+
+		int written = 0;
+		for (StepExecution stepExecution : jobExplorer.getJobExecution(jobExecution.getId()).getStepExecutions()) {
+			if (!"partitionerStep".equals(stepExecution.getStepName())) {
+				assertEquals(BatchStatus.COMPLETED, stepExecution.getStatus());
+				written += stepExecution.getWriteCount();
+			}
+		}
+		assertEquals(candidates, written);
+
+		CoalescingJobRepository jobRepository = (CoalescingJobRepository) batchConfigurer.getJobRepository();
+		assertEquals(jobExecution.getId(), jobRepository.getRecentJobExecutions().get(jobRepository.getRecentJobExecutions().size() - 1).getId());
+		assertTrue(meterRegistry.get("batch.job.repository.updates").tag("kind", "step").tag("result", "coalesced")
+			.counter().count() > 0);
+	}
+}
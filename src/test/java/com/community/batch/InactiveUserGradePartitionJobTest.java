@@ -0,0 +1,59 @@
+package com.community.batch;
+
+import com.community.batch.domain.enums.UserStatus;
+import com.community.batch.domain.repository.UserRepository;
+import com.community.batch.jobs.InactiveUserPartitionJobConfig;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.test.JobLauncherTestUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDateTime;
+
+import static com.community.batch.jobs.partitioner.InactiveUserRangePartitioner.KEY_ESTIMATED_COUNT;
+import static com.community.batch.jobs.partitioner.InactiveUserRangePartitioner.KEY_GRADE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * GRADE 모드에서는 grade 별로 나뉜 partition 을 grade 우선순위, 예상 row 수 순서로 실행한다.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = { BatchApplication.class, InactiveUserPartitionJobConfig.class }, properties = {
+	"batch.inactive-user.partition-mode=GRADE",
+	"batch.inactive-user.simulated-delay-ms=0",
+	"batch.inactive-user.side-effects.notification-latency-ms=0",
+	"batch.inactive-user.side-effects.archive-latency-ms=0"
+})
+public class InactiveUserGradePartitionJobTest {
+
+	@Autowired
+	private JobLauncherTestUtils jobLauncherTestUtils;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Test
+	public void grade_별_partition_으로_휴면_전환한다() throws Exception {
+		JobExecution jobExecution = jobLauncherTestUtils.launchJob();
+
+		assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+		assertEquals(0, userRepository.findByUpdatedDateBeforeAndStatus(LocalDateTime.now().minusYears(1), UserStatus.ACTIVE).size());
+
+		int partitions = 0;
+		for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+			if ("partitionerStep".equals(stepExecution.getStepName())) {
+				continue;
+			}
+			partitions++;
+			assertTrue(stepExecution.getExecutionContext().containsKey(KEY_GRADE));
+			assertEquals(stepExecution.getExecutionContext().getLong(KEY_ESTIMATED_COUNT), stepExecution.getReadCount());
+		}
+		assertTrue(partitions > 1);
+	}
+}
@@ -0,0 +1,91 @@
+package com.community.batch;
+
+import com.community.batch.domain.User;
+import com.community.batch.domain.enums.UserStatus;
+import com.community.batch.domain.repository.UserRepository;
+import com.community.batch.jobs.InactiveUserPartitionJobConfig;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.test.JobLauncherTestUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDateTime;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * IN_JVM 모드에서는 가장 짧은 기준(1년)으로 조회하고, VIP 3년 기준은 processor 가 item 마다 판단해서 걸러낸다.
+ * 기준을 넘지 않은 VIP 를 chunk 크기(2)보다 많이 연달아 만들어서 chunk 하나가 통째로 걸러지게 한다.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = { BatchApplication.class, InactiveUserPartitionJobConfig.class }, properties = {
+	"batch.inactive-user.rules.evaluation=IN_JVM",
+	"batch.inactive-user.rules.overrides[0].grade=VIP",
+	"batch.inactive-user.rules.overrides[0].retention=P3Y",
+	"batch.inactive-user.pipeline.worker-count=0",
+	"batch.inactive-user.grid-size=1",
+	"batch.chunk.initial-size=2",
+	"batch.chunk.min-size=2",
+	"batch.chunk.max-size=2",
+	"batch.inactive-user.simulated-delay-ms=0",
+	"batch.inactive-user.side-effects.notification-latency-ms=0",
+	"batch.inactive-user.side-effects.archive-latency-ms=0"
+})
+public class InactiveUserInJvmRuleJobTest {
+
+	private static final int RECENT_VIP_COUNT = 3;
+
+	@Autowired
+	private JobLauncherTestUtils jobLauncherTestUtils;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	public void processor_에서_grade_별_기준을_판단한다() throws Exception {
+		LocalDateTime now = LocalDateTime.now();
+		User oldVip = save("old-vip", "VIP", now.minusYears(4));
+		User[] recentVips = new User[RECENT_VIP_COUNT];
+		for (int i = 0; i < RECENT_VIP_COUNT; i++) {
+			recentVips[i] = save("recent-vip" + i, "VIP", now.minusYears(2));
+		}
+		User gold = save("gold", "GOLD", now.minusYears(2));
+
+		JobExecution jobExecution = jobLauncherTestUtils.launchJob();
+
+		assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+		for (User recentVip : recentVips) {
+			assertEquals(UserStatus.ACTIVE, userRepository.findById(recentVip.getIdx()).get().getStatus());
+		}
+		assertEquals(UserStatus.INACTIVE, userRepository.findById(oldVip.getIdx()).get().getStatus());
+		assertEquals(UserStatus.INACTIVE, userRepository.findById(gold.getIdx()).get().getStatus());
+		// 조회 조건에서 걸러지지 않은 VIP 는 processor 가 걸러낸다.
+		int filterCount = jobExecution.getStepExecutions().stream()
+			.filter(stepExecution -> !"partitionerStep".equals(stepExecution.getStepName()))
+			.mapToInt(StepExecution::getFilterCount)
+			.sum();
+		assertEquals(RECENT_VIP_COUNT, filterCount);
+	}
+
+	private User save(String name, String grade, LocalDateTime updatedDate) {
+		User user = userRepository.save(User.builder()
+			.name(name)
+			.password(name)
+			.email(name + "@test.com")
+			.status(UserStatus.ACTIVE)
+			.createdDate(updatedDate.minusYears(1))
+			.updatedDate(updatedDate)
+			.build());
+		jdbcTemplate.update("update user set grade = ? where idx = ?", grade, user.getIdx());
+		return user;
+	}
+}
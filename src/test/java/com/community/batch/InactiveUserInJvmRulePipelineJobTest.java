@@ -0,0 +1,85 @@
+package com.community.batch;
+
+import com.community.batch.domain.User;
+import com.community.batch.domain.enums.UserStatus;
+import com.community.batch.domain.repository.UserRepository;
+import com.community.batch.jobs.InactiveUserPartitionJobConfig;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.test.JobLauncherTestUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDateTime;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * InactiveUserInJvmRuleJobTest 와 같은 데이터를 pipeline 모드(AsyncItemProcessor/AsyncItemWriter)로 처리한다.
+ * AsyncItemWriter 는 걸러진 item(null)을 빼고 delegate 에 넘기므로, chunk 하나가 통째로 걸러지면 빈 chunk 가 writer 에 전달된다.
+ * (AsyncItemProcessor 는 Future 를 넘기므로 filter count 는 확인하지 않는다)
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = { BatchApplication.class, InactiveUserPartitionJobConfig.class }, properties = {
+	"batch.inactive-user.rules.evaluation=IN_JVM",
+	"batch.inactive-user.rules.overrides[0].grade=VIP",
+	"batch.inactive-user.rules.overrides[0].retention=P3Y",
+	"batch.inactive-user.pipeline.worker-count=2",
+	"batch.inactive-user.grid-size=1",
+	"batch.chunk.initial-size=2",
+	"batch.chunk.min-size=2",
+	"batch.chunk.max-size=2",
+	"batch.inactive-user.simulated-delay-ms=0",
+	"batch.inactive-user.side-effects.notification-latency-ms=0",
+	"batch.inactive-user.side-effects.archive-latency-ms=0"
+})
+public class InactiveUserInJvmRulePipelineJobTest {
+
+	private static final int RECENT_VIP_COUNT = 3;
+
+	@Autowired
+	private JobLauncherTestUtils jobLauncherTestUtils;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	public void pipeline_모드에서_chunk_가_모두_걸러져도_완료된다() throws Exception {
+		LocalDateTime now = LocalDateTime.now();
+		User oldVip = save("old-vip", "VIP", now.minusYears(4));
+		User[] recentVips = new User[RECENT_VIP_COUNT];
+		for (int i = 0; i < RECENT_VIP_COUNT; i++) {
+			recentVips[i] = save("recent-vip" + i, "VIP", now.minusYears(2));
+		}
+		User gold = save("gold", "GOLD", now.minusYears(2));
+
+		JobExecution jobExecution = jobLauncherTestUtils.launchJob();
+
+		assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+		for (User recentVip : recentVips) {
+			assertEquals(UserStatus.ACTIVE, userRepository.findById(recentVip.getIdx()).get().getStatus());
+		}
+		assertEquals(UserStatus.INACTIVE, userRepository.findById(oldVip.getIdx()).get().getStatus());
+		assertEquals(UserStatus.INACTIVE, userRepository.findById(gold.getIdx()).get().getStatus());
+	}
+
+	private User save(String name, String grade, LocalDateTime updatedDate) {
+		User user = userRepository.save(User.builder()
+			.name(name)
+			.password(name)
+			.email(name + "@test.com")
+			.status(UserStatus.ACTIVE)
+			.createdDate(updatedDate.minusYears(1))
+			.updatedDate(updatedDate)
+			.build());
+		jdbcTemplate.update("update user set grade = ? where idx = ?", grade, user.getIdx());
+		return user;
+	}
+}
@@ -0,0 +1,85 @@
+package com.community.batch;
+
+import com.community.batch.domain.InactiveUserWatermark;
+import com.community.batch.domain.User;
+import com.community.batch.domain.enums.UserStatus;
+import com.community.batch.domain.repository.InactiveUserWatermarkRepository;
+import com.community.batch.domain.repository.UserRepository;
+import com.community.batch.jobs.InactiveUserPartitionJobConfig;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.test.JobLauncherTestUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDateTime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * incremental 모드에서는 이전에 COMPLETED 된 실행의 기준 시각(high-water mark) 이후 새로 1년이 지난 회원만 조회한다.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = { BatchApplication.class, InactiveUserPartitionJobConfig.class }, properties = {
+	"batch.inactive-user.incremental=true",
+	"batch.inactive-user.simulated-delay-ms=0",
+	"batch.inactive-user.side-effects.notification-latency-ms=0",
+	"batch.inactive-user.side-effects.archive-latency-ms=0"
+})
+public class InactiveUserIncrementalJobTest {
+
+	@Autowired
+	private JobLauncherTestUtils jobLauncherTestUtils;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private InactiveUserWatermarkRepository watermarkRepository;
+
+	@Test
+	public void 이전_실행_이후에_기준을_넘은_회원만_휴면_전환한다() throws Exception {
+		JobExecution first = jobLauncherTestUtils.launchJob();
+
+		assertEquals(BatchStatus.COMPLETED, first.getStatus());
+		assertEquals(0, userRepository.findByUpdatedDateBeforeAndStatus(LocalDateTime.now().minusYears(1), UserStatus.ACTIVE).size());
+		LocalDateTime threshold = watermarkRepository.findById("inactiveUserPartitionJob")
+			.map(InactiveUserWatermark::getThreshold)
+			.orElseThrow(() -> new AssertionError("watermark is not saved"));
+
+		// high-water mark 이전 구간은 이미 처리된 것으로 보고 다시 조회하지 않는다.
+		User behindWatermark = userRepository.save(activeUser("behind", threshold.minusDays(10)));
+		// 이전 실행 이후에 1년이 지난 회원
+		User crossed = userRepository.save(activeUser("crossed", threshold));
+
+		JobExecution second = jobLauncherTestUtils.launchJob();
+
+		assertEquals(BatchStatus.COMPLETED, second.getStatus());
+		int read = 0;
+		for (StepExecution stepExecution : second.getStepExecutions()) {
+			if (!"partitionerStep".equals(stepExecution.getStepName())) {
+				read += stepExecution.getReadCount();
+			}
+		}
+		assertEquals(1, read);
+		assertEquals(UserStatus.INACTIVE, userRepository.findById(crossed.getIdx()).get().getStatus());
+		assertEquals(UserStatus.ACTIVE, userRepository.findById(behindWatermark.getIdx()).get().getStatus());
+		assertTrue(watermarkRepository.findById("inactiveUserPartitionJob").get().getThreshold().isAfter(threshold));
+	}
+
+	private static User activeUser(String name, LocalDateTime updatedDate) {
+		return User.builder()
+			.name(name)
+			.password(name)
+			.email(name + "@test.com")
+			.status(UserStatus.ACTIVE)
+			.createdDate(updatedDate.minusYears(1))
+			.updatedDate(updatedDate)
+			.build();
+	}
+}
@@ -0,0 +1,28 @@
+package com.community.batch;
+
+import com.community.batch.domain.repository.InactiveUserQueryPlanChecker;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class InactiveUserQueryPlanTest {
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	public void 휴면_회원_조회_쿼리는_테이블_스캔을_하지_않는다() {
+		// reader, partitioner 의 조회 쿼리를 EXPLAIN 하여 table scan 이 있으면 실패한다.
+		new InactiveUserQueryPlanChecker(dataSource, entityManagerFactory).check();
+	}
+}
@@ -0,0 +1,245 @@
+package com.community.batch;
+
+import com.community.batch.domain.InactiveUserCandidate;
+import com.community.batch.domain.User;
+import com.community.batch.domain.enums.UserStatus;
+import com.community.batch.domain.repository.UserRepository;
+import com.community.batch.jobs.InactiveUserPartitionJobConfig;
+import com.community.batch.jobs.listener.BatchMetrics;
+import com.community.batch.jobs.processor.InactiveUserSideEffectProcessor;
+import com.community.batch.jobs.processor.InactiveUserSideEffectProperties;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.listener.ChunkListenerSupport;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.TaskletStep;
+import org.springframework.batch.integration.partition.StepExecutionRequest;
+import org.springframework.batch.integration.partition.StepExecutionRequestHandler;
+import org.springframework.batch.test.JobLauncherTestUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * worker 가 partition 을 실행하던 도중 죽으면 요청 메시지가 commit 되지 않고 다시 전달되어야 한다.
+ * - 몇 개의 chunk 가 commit 된 뒤 worker 가 실패하고, handler 가 예외를 던져서 JMS session 을 rollback 시킨다. (worker 가 죽은 것과 같다)
+ * - 같은 StepExecution 이 다시 전달되어 마지막으로 commit 된 lastKey 부터 이어서 실행되어야 하고
+ * - 모든 대상이 빠짐없이, 한 번씩만 처리(안내 발송)되어야 한다.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = { BatchApplication.class, InactiveUserPartitionJobConfig.class,
+	InactiveUserRemotePartitionFailoverJobTest.FailoverTestConfig.class }, properties = {
+	"spring.artemis.mode=embedded",
+	"spring.artemis.embedded.enabled=true",
+	"batch.remote.manager=true",
+	"batch.remote.worker=true",
+	"batch.remote.timeout-millis=60000",
+	"batch.inactive-user.grid-size=1",
+	"batch.chunk.initial-size=1",
+	"batch.chunk.min-size=1",
+	"batch.chunk.max-size=1"
+})
+public class InactiveUserRemotePartitionFailoverJobTest {
+
+	private static final String LAST_KEY = "inactiveUserReader.last.key";
+
+	private static final int COMMITS_BEFORE_CRASH = 3;
+
+	@Autowired
+	private JobLauncherTestUtils jobLauncherTestUtils;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private Step inactiveJobStep;
+
+	@Autowired
+	private FailingOnceStepExecutionRequestHandler stepExecutionRequestHandler;
+
+	@Autowired
+	private RecordingSideEffectProcessor sideEffectProcessor;
+
+	private final AtomicBoolean crashed = new AtomicBoolean();
+
+	// 전달 받을 때마다 step 이 시작하는 위치 (ExecutionContext 의 lastKey)
+	private final List<Long> startKeys = Collections.synchronizedList(new ArrayList<>());
+
+	@Before
+	public void setUp() {
+		TaskletStep step = (TaskletStep) inactiveJobStep;
+		step.registerStepExecutionListener(new StepExecutionListener() {
+			@Override
+			public void beforeStep(StepExecution stepExecution) {
+				startKeys.add(stepExecution.getExecutionContext().containsKey(LAST_KEY)
+					? stepExecution.getExecutionContext().getLong(LAST_KEY) : null);
+			}
+
+			@Override
+			public ExitStatus afterStep(StepExecution stepExecution) {
+				return null;
+			}
+		});
+		// COMMITS_BEFORE_CRASH 개의 chunk 가 commit 된 뒤, 다음 chunk 를 시작할 때 한 번만 실패한다.
+		step.registerChunkListener(new ChunkListenerSupport() {
+			@Override
+			public void beforeChunk(ChunkContext context) {
+				if (context.getStepContext().getStepExecution().getCommitCount() >= COMMITS_BEFORE_CRASH
+					&& crashed.compareAndSet(false, true)) {
+					throw new WorkerCrashedException();
+				}
+			}
+		});
+	}
+
+	@Test
+	public void 파티션_실행중_worker_실패시_재전달_테스트() throws Exception {
+		List<Long> candidates = staleActiveUsers().stream().map(User::getIdx).sorted().collect(Collectors.toList());
+		assertTrue(candidates.size() > COMMITS_BEFORE_CRASH);
+
+		JobExecution jobExecution = jobLauncherTestUtils.launchJob();
+
+		assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+		assertTrue(crashed.get());
+
+		// 같은 partition(StepExecution)이 두 번 전달되었다.
+		List<Long> deliveries = stepExecutionRequestHandler.getDeliveries();
+		assertEquals(2, deliveries.size());
+		assertEquals(deliveries.get(0), deliveries.get(1));
+
+		// 처음에는 범위의 시작부터, 다시 전달 받은 뒤에는 실패 전 마지막으로 commit 된 idx 부터 이어서 읽는다.
+		assertEquals(2, startKeys.size());
+		assertNull(startKeys.get(0));
+		assertEquals(candidates.get(COMMITS_BEFORE_CRASH - 1), startKeys.get(1));
+
+		// 빠진 회원도, 두 번 처리된 회원도 없다.
+		assertEquals(0, staleActiveUsers().size());
+		Map<Long, Integer> notifications = sideEffectProcessor.getNotifications();
+		assertEquals(candidates, notifications.keySet().stream().sorted().collect(Collectors.toList()));
+		notifications.forEach((idx, count) -> assertEquals("notifications for " + idx, 1, count.intValue()));
+
+		StepExecution partition = jobExecution.getStepExecutions().stream()
+			.filter(stepExecution -> stepExecution.getId().equals(deliveries.get(0)))
+			.findFirst()
+			.orElseThrow(IllegalStateException::new);
+		assertEquals(candidates.size(), partition.getReadCount());
+		assertEquals(candidates.size(), partition.getWriteCount());
+	}
+
+	private List<User> staleActiveUsers() {
+		return userRepository.findByUpdatedDateBeforeAndStatus(LocalDateTime.now().minusYears(1), UserStatus.ACTIVE);
+	}
+
+	@TestConfiguration
+	static class FailoverTestConfig {
+
+		// worker 의 handler 를 감싸서, step 이 WorkerCrashedException 으로 실패하면 응답 대신 예외를 던진다.
+		@Bean
+		public static BeanPostProcessor failingOnceStepExecutionRequestHandler() {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String beanName) {
+					if (bean instanceof StepExecutionRequestHandler && !(bean instanceof FailingOnceStepExecutionRequestHandler)) {
+						return new FailingOnceStepExecutionRequestHandler((StepExecutionRequestHandler) bean);
+					}
+					return bean;
+				}
+			};
+		}
+
+		@Bean
+		@Primary
+		public RecordingSideEffectProcessor recordingSideEffectProcessor(InactiveUserSideEffectProperties properties,
+			BatchMetrics metrics) {
+			return new RecordingSideEffectProcessor(properties, metrics);
+		}
+	}
+
+	static class FailingOnceStepExecutionRequestHandler extends StepExecutionRequestHandler {
+
+		private final StepExecutionRequestHandler delegate;
+		private final List<Long> deliveries = Collections.synchronizedList(new ArrayList<>());
+
+		FailingOnceStepExecutionRequestHandler(StepExecutionRequestHandler delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public StepExecution handle(StepExecutionRequest request) {
+			deliveries.add(request.getStepExecutionId());
+			StepExecution stepExecution = delegate.handle(request);
+			for (Throwable failure : stepExecution.getFailureExceptions()) {
+				if (isWorkerCrash(failure)) {
+					// 응답을 보내지 않고 예외를 던지면 요청 메시지가 rollback 되어 다시 전달된다.
+					throw new IllegalStateException("worker died while executing " + stepExecution.getStepName(), failure);
+				}
+			}
+			return stepExecution;
+		}
+
+		List<Long> getDeliveries() {
+			return new ArrayList<>(deliveries);
+		}
+
+		private static boolean isWorkerCrash(Throwable failure) {
+			for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+				if (cause instanceof WorkerCrashedException) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	// 안내 발송 횟수를 회원별로 센다.
+	static class RecordingSideEffectProcessor extends InactiveUserSideEffectProcessor {
+
+		private final Map<Long, AtomicInteger> notifications = new ConcurrentHashMap<>();
+
+		RecordingSideEffectProcessor(InactiveUserSideEffectProperties properties, BatchMetrics metrics) {
+			super(properties, metrics);
+		}
+
+		@Override
+		protected void notifyInactive(InactiveUserCandidate user) throws InterruptedException {
+			super.notifyInactive(user);
+			notifications.computeIfAbsent(user.getIdx(), idx -> new AtomicInteger()).incrementAndGet();
+		}
+
+		Map<Long, Integer> getNotifications() {
+			return notifications.entrySet().stream()
+				.collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().get()));
+		}
+	}
+
+	static class WorkerCrashedException extends RuntimeException {
+		WorkerCrashedException() {
+			super("simulated worker crash");
+		}
+	}
+}
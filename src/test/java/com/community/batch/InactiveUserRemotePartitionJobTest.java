@@ -0,0 +1,49 @@
+package com.community.batch;
+
+import com.community.batch.domain.enums.UserStatus;
+import com.community.batch.domain.repository.UserRepository;
+import com.community.batch.jobs.InactiveUserPartitionJobConfig;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.test.JobLauncherTestUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDateTime;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * manager 와 worker 를 하나의 JVM 에서 실행하고, 그 사이를 in-VM Artemis broker 의 queue 로 연결한다.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = { BatchApplication.class, InactiveUserPartitionJobConfig.class }, properties = {
+	"spring.artemis.mode=embedded",
+	"spring.artemis.embedded.enabled=true",
+	"batch.remote.manager=true",
+	"batch.remote.worker=true",
+	"batch.remote.timeout-millis=60000",
+	"batch.inactive-user.grid-size=3"
+})
+public class InactiveUserRemotePartitionJobTest {
+
+	@Autowired
+	private JobLauncherTestUtils jobLauncherTestUtils;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Test
+	public void 원격_파티션_휴면_회원_전환_테스트() throws Exception {
+		JobExecution jobExecution = jobLauncherTestUtils.launchJob();
+
+		// 모든 partition 이 worker 에서 실행되고 결과가 manager 로 모여야 COMPLETED 가 된다.
+		assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+		assertEquals(3, jobExecution.getStepExecutions().size() - 1); // partitionerStep + partition 3개
+		int userCount = userRepository.findByUpdatedDateBeforeAndStatus(LocalDateTime.now().minusYears(1), UserStatus.ACTIVE).size();
+		assertEquals(0, userCount);
+	}
+}
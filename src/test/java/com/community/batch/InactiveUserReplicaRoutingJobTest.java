@@ -0,0 +1,138 @@
+package com.community.batch;
+
+import com.community.batch.domain.InactiveUserWatermark;
+import com.community.batch.domain.enums.UserStatus;
+import com.community.batch.domain.repository.InactiveUserWatermarkRepository;
+import com.community.batch.domain.repository.UserRepository;
+import com.community.batch.jobs.InactiveUserPartitionJobConfig;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.test.JobLauncherTestUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 두 개의 H2 in-memory DB 를 primary, replica 로 사용한다.
+ * replica 에만 없는 회원이 휴면 전환되는지로 reader 가 어느 DB 에서 읽었는지 확인한다.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = { BatchApplication.class, InactiveUserPartitionJobConfig.class }, properties = {
+	"spring.datasource.url=" + InactiveUserReplicaRoutingJobTest.PRIMARY_URL,
+	"batch.datasource.replica.enabled=true",
+	"batch.datasource.replica.url=" + InactiveUserReplicaRoutingJobTest.REPLICA_URL,
+	"batch.datasource.replica.username=sa",
+	"batch.datasource.replica.hikari.maximum-pool-size=4",
+	"batch.inactive-user.simulated-delay-ms=0",
+	"batch.inactive-user.side-effects.notification-latency-ms=0",
+	"batch.inactive-user.side-effects.archive-latency-ms=0"
+})
+public class InactiveUserReplicaRoutingJobTest {
+
+	static final String PRIMARY_URL = "jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1";
+	static final String REPLICA_URL = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1";
+	private static final String JOB_NAME = "inactiveUserPartitionJob";
+
+	private static List<Long> candidates;
+
+	@Autowired
+	private JobLauncherTestUtils jobLauncherTestUtils;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private InactiveUserWatermarkRepository watermarkRepository;
+
+	@Autowired
+	@Qualifier("primaryDataSource")
+	private DataSource primaryDataSource;
+
+	private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+	@Before
+	public void setUp() {
+		JdbcTemplate primary = new JdbcTemplate(primaryDataSource);
+		if (candidates == null) {
+			candidates = primary.queryForList("select idx from user where updated_date < ? and status = 'ACTIVE' order by idx",
+				Long.class, LocalDateTime.now().minusYears(1));
+		}
+		// 테스트마다 같은 대상에서 시작한다.
+		candidates.forEach(idx -> primary.update("update user set status = 'ACTIVE' where idx = ?", idx));
+		watermarkRepository.deleteAll();
+
+		// primary 의 현재 상태를 replica 로 복제한다.
+		copyToReplica("USER");
+		copyToReplica("INACTIVE_USER_WATERMARK");
+	}
+
+	@Test
+	public void reader_는_replica_에서_읽고_writer_는_primary_를_갱신한다() throws Exception {
+		long missingOnReplica = candidates.get(0);
+		replica.update("delete from user where idx = ?", missingOnReplica);
+
+		JobExecution jobExecution = jobLauncherTestUtils.launchJob();
+
+		assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+		assertEquals(UserStatus.ACTIVE, userRepository.findById(missingOnReplica).get().getStatus());
+		for (Long idx : candidates.subList(1, candidates.size())) {
+			assertEquals(UserStatus.INACTIVE, userRepository.findById(idx).get().getStatus());
+		}
+		// replica 는 갱신하지 않는다.
+		assertEquals(Integer.valueOf(candidates.size() - 1), replica.queryForObject(
+			"select count(*) from user where status = 'ACTIVE' and idx in (" + joined(candidates) + ")", Integer.class));
+	}
+
+	@Test
+	public void replica_가_이전_실행의_변경을_반영하지_못했으면_primary_에서_읽는다() throws Exception {
+		long missingOnReplica = candidates.get(0);
+		replica.update("delete from user where idx = ?", missingOnReplica);
+		// 이전 실행의 high-water mark 가 아직 replica 에 반영되지 않은 상태
+		watermarkRepository.save(new InactiveUserWatermark(JOB_NAME).advance(LocalDateTime.now().minusYears(2), 1L));
+
+		JobExecution jobExecution = jobLauncherTestUtils.launchJob();
+
+		assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+		assertTrue(candidates.stream()
+			.allMatch(idx -> userRepository.findById(idx).get().getStatus() == UserStatus.INACTIVE));
+	}
+
+	@Test
+	public void incremental_모드가_아니어도_끝난_실행은_replica_비교를_위해_기록된다() throws Exception {
+		JobExecution jobExecution = jobLauncherTestUtils.launchJob();
+
+		assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+		InactiveUserWatermark watermark = watermarkRepository.findById(JOB_NAME).get();
+		assertEquals(jobExecution.getId(), watermark.getJobExecutionId());
+		assertNull(watermark.getThreshold()); // 조회 구간은 incremental 모드에서만 기록한다.
+	}
+
+	private void copyToReplica(String table) {
+		replica.execute("drop table if exists " + table);
+		replica.execute("create linked table primary_" + table + "('org.h2.Driver', '" + PRIMARY_URL + "', 'sa', '', '" + table + "')");
+		replica.execute("create table " + table + " as select * from primary_" + table);
+		replica.execute("drop table primary_" + table);
+	}
+
+	private static String joined(List<Long> idxs) {
+		StringBuilder builder = new StringBuilder();
+		for (Long idx : idxs) {
+			builder.append(builder.length() == 0 ? "" : ",").append(idx);
+		}
+		return builder.toString();
+	}
+}
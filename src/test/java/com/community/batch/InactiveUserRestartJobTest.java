@@ -0,0 +1,132 @@
+package com.community.batch;
+
+import com.community.batch.domain.enums.UserStatus;
+import com.community.batch.domain.repository.UserRepository;
+import com.community.batch.jobs.InactiveUserPartitionJobConfig;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.support.SimpleJobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 실행 중인 job 을 중간에 중단시킨 뒤 같은 JobParameters 로 다시 실행한다.
+ * - 중단 전에 commit 된 chunk 는 다시 처리되지 않아야 하고 (read + write 합계가 대상 수와 같아야 한다)
+ * - 재시작 후에는 남은 대상만 처리되어 모든 대상이 한 번씩만 INACTIVE 로 전환되어야 한다.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = { BatchApplication.class, InactiveUserPartitionJobConfig.class }, properties = {
+	"batch.inactive-user.grid-size=1",
+	"batch.chunk.initial-size=1",
+	"batch.chunk.min-size=1",
+	"batch.chunk.max-size=1"
+})
+public class InactiveUserRestartJobTest {
+
+	private static final String PARTITION_STEP = "partitionerStep";
+
+	@Autowired
+	private Job inactiveUserPartitionJob;
+
+	@Autowired
+	private JobRepository jobRepository;
+
+	@Autowired
+	private JobExplorer jobExplorer;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Test
+	public void 중단된_휴면_회원_전환_재시작_테스트() throws Exception {
+		int candidates = staleActiveUserCount();
+		assertTrue(candidates > 3);
+
+		SimpleJobLauncher asyncLauncher = new SimpleJobLauncher();
+		asyncLauncher.setJobRepository(jobRepository);
+		asyncLauncher.setTaskExecutor(new SimpleAsyncTaskExecutor());
+		asyncLauncher.afterPropertiesSet();
+
+		JobParameters jobParameters = new JobParametersBuilder()
+			.addLong("run.id", System.currentTimeMillis())
+			.toJobParameters();
+
+		// 몇 개의 chunk 가 commit 된 뒤에 job 을 중단시킨다. (JobOperator.stop() 과 같은 방식)
+		JobExecution first = asyncLauncher.run(inactiveUserPartitionJob, jobParameters);
+		waitFor(first.getId(), execution -> sumWriteCount(execution) >= 3);
+		JobExecution stopping = jobExplorer.getJobExecution(first.getId());
+		stopping.setStatus(BatchStatus.STOPPING);
+		jobRepository.update(stopping);
+		first = waitFor(first.getId(), execution -> !execution.isRunning());
+
+		assertEquals(BatchStatus.STOPPED, first.getStatus());
+		int writtenBeforeStop = sumWriteCount(first);
+		assertTrue(writtenBeforeStop < candidates);
+		assertEquals(candidates - writtenBeforeStop, staleActiveUserCount());
+		for (StepExecution partition : partitions(first)) {
+			// 마지막으로 commit 된 idx 가 partition 별로 저장되어 있어야 한다.
+			assertTrue(partition.getExecutionContext().containsKey("inactiveUserReader.last.key"));
+		}
+
+		// 같은 JobParameters 로 실행하면 새로운 JobInstance 가 아니라 중단된 JobExecution 을 이어서 실행한다.
+		JobExecution second = asyncLauncher.run(inactiveUserPartitionJob, jobParameters);
+		second = waitFor(second.getId(), execution -> !execution.isRunning());
+
+		assertEquals(BatchStatus.COMPLETED, second.getStatus());
+		assertEquals(first.getJobInstance().getId(), second.getJobInstance().getId());
+		assertEquals(0, staleActiveUserCount());
+
+		// 중단 전에 처리한 item 은 다시 read/write 하지 않는다.
+		int readAfterRestart = partitions(second).stream().mapToInt(StepExecution::getReadCount).sum();
+		assertEquals(candidates - writtenBeforeStop, readAfterRestart);
+		assertEquals(candidates, writtenBeforeStop + sumWriteCount(second));
+	}
+
+	private int staleActiveUserCount() {
+		return userRepository.findByUpdatedDateBeforeAndStatus(LocalDateTime.now().minusYears(1), UserStatus.ACTIVE).size();
+	}
+
+	private JobExecution waitFor(long jobExecutionId, Predicate<JobExecution> condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 60_000;
+		while (System.currentTimeMillis() < deadline) {
+			JobExecution execution = jobExplorer.getJobExecution(jobExecutionId);
+			if (condition.test(execution)) {
+				return execution;
+			}
+			Thread.sleep(50);
+		}
+		throw new AssertionError("timed out waiting for job execution " + jobExecutionId);
+	}
+
+	private static List<StepExecution> partitions(JobExecution execution) {
+		List<StepExecution> partitions = new ArrayList<>();
+		for (StepExecution stepExecution : execution.getStepExecutions()) {
+			if (!PARTITION_STEP.equals(stepExecution.getStepName())) {
+				partitions.add(stepExecution);
+			}
+		}
+		return partitions;
+	}
+
+	private static int sumWriteCount(JobExecution execution) {
+		return partitions(execution).stream().mapToInt(StepExecution::getWriteCount).sum();
+	}
+}
@@ -0,0 +1,77 @@
+package com.community.batch;
+
+import com.community.batch.domain.User;
+import com.community.batch.domain.enums.UserStatus;
+import com.community.batch.domain.repository.UserRepository;
+import com.community.batch.jobs.InactiveUserPartitionJobConfig;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.test.JobLauncherTestUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDateTime;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * grade 별 휴면 기준(VIP 3년, 나머지 1년)을 조회 조건으로 push-down 하면 기준을 넘지 않은 회원은 읽지도 않는다.
+ * AsyncItemProcessor 는 null 대신 Future 를 넘기므로 filter count 가 항상 0 이다. item 을 순차 처리(worker-count=0)해야 filter count 로 확인할 수 있다.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = { BatchApplication.class, InactiveUserPartitionJobConfig.class }, properties = {
+	"batch.inactive-user.rules.evaluation=PUSH_DOWN",
+	"batch.inactive-user.rules.overrides[0].grade=VIP",
+	"batch.inactive-user.rules.overrides[0].retention=P3Y",
+	"batch.inactive-user.pipeline.worker-count=0",
+	"batch.inactive-user.simulated-delay-ms=0",
+	"batch.inactive-user.side-effects.notification-latency-ms=0",
+	"batch.inactive-user.side-effects.archive-latency-ms=0"
+})
+public class InactiveUserRuleJobTest {
+
+	@Autowired
+	private JobLauncherTestUtils jobLauncherTestUtils;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	public void grade_별_기준을_넘은_회원만_휴면_전환한다() throws Exception {
+		LocalDateTime now = LocalDateTime.now();
+		User recentVip = save("recent-vip", "VIP", now.minusYears(2));
+		User oldVip = save("old-vip", "VIP", now.minusYears(4));
+		User gold = save("gold", "GOLD", now.minusYears(2));
+
+		JobExecution jobExecution = jobLauncherTestUtils.launchJob();
+
+		assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+		assertEquals(UserStatus.ACTIVE, userRepository.findById(recentVip.getIdx()).get().getStatus());
+		assertEquals(UserStatus.INACTIVE, userRepository.findById(oldVip.getIdx()).get().getStatus());
+		assertEquals(UserStatus.INACTIVE, userRepository.findById(gold.getIdx()).get().getStatus());
+		for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+			assertEquals(0, stepExecution.getFilterCount()); // processor 가 아니라 조회 조건에서 걸러졌다.
+		}
+	}
+
+	private User save(String name, String grade, LocalDateTime updatedDate) {
+		User user = userRepository.save(User.builder()
+			.name(name)
+			.password(name)
+			.email(name + "@test.com")
+			.status(UserStatus.ACTIVE)
+			.createdDate(updatedDate.minusYears(1))
+			.updatedDate(updatedDate)
+			.build());
+		jdbcTemplate.update("update user set grade = ? where idx = ?", grade, user.getIdx());
+		return user;
+	}
+}
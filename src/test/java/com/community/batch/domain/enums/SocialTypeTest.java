@@ -0,0 +1,25 @@
+package com.community.batch.domain.enums;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SocialTypeTest {
+
+	@Test
+	public void role_type_은_미리_만들어_둔_문자열을_사용한다() {
+		for (SocialType socialType : SocialType.values()) {
+			assertEquals("ROLE_" + socialType.getValue().toUpperCase(), socialType.getRoleType());
+			assertSame(socialType.getRoleType(), socialType.getRoleType());
+			assertSame(socialType, SocialType.fromRoleType("ROLE_" + socialType.name()));
+			assertTrue(socialType.isEquals("ROLE_" + socialType.name()));
+		}
+		assertFalse(SocialType.KAKAO.isEquals("ROLE_GOOGLE"));
+		assertNull(SocialType.fromRoleType("ROLE_NAVER"));
+		assertNull(SocialType.fromRoleType(null));
+	}
+}
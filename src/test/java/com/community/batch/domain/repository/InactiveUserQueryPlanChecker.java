@@ -0,0 +1,105 @@
+package com.community.batch.domain.repository;
+
+import com.community.batch.domain.enums.Grade;
+import com.community.batch.jobs.InactiveUserJobConfig;
+import com.community.batch.jobs.InactiveUserPartitionJobConfig;
+import com.community.batch.jobs.partitioner.InactiveUserRangePartitioner;
+import com.community.batch.jobs.processor.InactiveUserRuleCondition;
+import com.community.batch.jobs.processor.InactiveUserRuleEvaluation;
+import com.community.batch.jobs.processor.InactiveUserRuleTable;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.hql.internal.ast.ASTQueryTranslatorFactory;
+import org.hibernate.hql.spi.QueryTranslator;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 휴면 전환 reader/partitioner 가 실행하는 쿼리의 실행 계획을 EXPLAIN 으로 확인한다. (H2 기준)
+ * 쿼리를 옮겨 적지 않고 partitioner 의 SQL 과 reader 의 JPQL(Hibernate 가 번역한 SQL)을 그대로 사용한다.
+ * 휴면 기준 조건은 InactiveUserRuleCondition 으로 만든다. (기준이 하나인 경우, grade 별 기준을 push-down 한 경우, incremental 모드)
+ * 실행 계획에 table scan 이 포함되어 있으면 IllegalStateException 을 던진다.
+ */
+@Slf4j
+public class InactiveUserQueryPlanChecker {
+
+	private static final String TABLE_SCAN = "tableScan";
+
+	private static final LocalDateTime REFERENCE_TIME = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+	private static final InactiveUserRuleTable UNIFORM = InactiveUserRuleTable.uniform(Period.ofYears(1));
+
+	// VIP 는 3년, 나머지는 1년
+	private static final InactiveUserRuleTable BY_GRADE = UNIFORM.withRetention(Grade.VIP, null, Period.ofYears(3));
+
+	private final DataSource dataSource;
+	private final JdbcTemplate jdbcTemplate;
+	private final SessionFactoryImplementor sessionFactory;
+
+	public InactiveUserQueryPlanChecker(DataSource dataSource, EntityManagerFactory entityManagerFactory) {
+		this.dataSource = dataSource;
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+	}
+
+	public void check() {
+		List<String> tableScans = new ArrayList<>();
+		queries().forEach((name, sql) -> {
+			String plan = explain(sql);
+			log.info("query plan [{}]: {}", name, plan);
+			if (plan.contains(TABLE_SCAN)) {
+				tableScans.add(name + " -> " + plan);
+			}
+		});
+		if (!tableScans.isEmpty()) {
+			throw new IllegalStateException("inactive user queries fall back to table scan: " + tableScans);
+		}
+	}
+
+	public Map<String, String> queries() {
+		Map<String, String> queries = new LinkedHashMap<>();
+		addQueries(queries, "", new InactiveUserRuleCondition(UNIFORM, InactiveUserRuleEvaluation.PUSH_DOWN, REFERENCE_TIME, null));
+		addQueries(queries, "rule ", new InactiveUserRuleCondition(BY_GRADE, InactiveUserRuleEvaluation.PUSH_DOWN, REFERENCE_TIME, null));
+		addQueries(queries, "incremental ", new InactiveUserRuleCondition(BY_GRADE, InactiveUserRuleEvaluation.PUSH_DOWN,
+			REFERENCE_TIME, REFERENCE_TIME.minusDays(1)));
+		return queries;
+	}
+
+	private void addQueries(Map<String, String> queries, String prefix, InactiveUserRuleCondition rules) {
+		InactiveUserRangePartitioner partitioner = new InactiveUserRangePartitioner(dataSource, rules,
+			InactiveUserRangePartitioner.Mode.RANGE);
+		queries.put(prefix + "range partitioner", partitioner.statsQuery(null));
+		queries.put(prefix + "histogram partitioner", partitioner.boundaryQuery(null));
+		queries.put(prefix + "grade partitioner", partitioner.statsQuery(Grade.VIP));
+		queries.put(prefix + "grade histogram partitioner", partitioner.boundaryQuery(Grade.VIP));
+
+		String ruleCondition = rules.toJpql("u", new HashMap<>());
+		queries.put(prefix + "keyset reader (partition)", toSql(InactiveUserPartitionJobConfig.readerQuery(ruleCondition, false)));
+		queries.put(prefix + "keyset reader (grade)", toSql(InactiveUserPartitionJobConfig.readerQuery(ruleCondition, true)));
+		queries.put(prefix + "keyset reader", toSql(InactiveUserJobConfig.readerQuery(ruleCondition)));
+	}
+
+	// reader 는 setMaxResults(pageSize) 로 조회하므로 H2 dialect 가 붙이는 limit 까지 포함한다.
+	private String toSql(String jpql) {
+		QueryTranslator translator = new ASTQueryTranslatorFactory()
+			.createQueryTranslator(jpql, jpql, Collections.emptyMap(), sessionFactory, null);
+		translator.compile(Collections.emptyMap(), false);
+		return translator.getSQLString() + " limit ?";
+	}
+
+	// 실행 계획은 parameter 값이 bind 되기 전(prepare 시점)에 정해지므로 값은 모두 null 로 bind 한다.
+	public String explain(String sql) {
+		Object[] args = new Object[(int) sql.chars().filter(c -> c == '?').count()];
+		return String.join("\n", jdbcTemplate.queryForList("explain " + sql, String.class, args));
+	}
+}
@@ -0,0 +1,99 @@
+package com.community.batch.jobs.dedup;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ConcurrentLongBitmapTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void 같은_id_는_한_번만_추가된다() {
+		ConcurrentLongBitmap bitmap = new ConcurrentLongBitmap();
+
+		assertTrue(bitmap.add(1001L));
+		assertFalse(bitmap.add(1001L));
+		assertTrue(bitmap.add(0L));
+		assertTrue(bitmap.add(ConcurrentLongBitmap.MAX_ID));
+
+		assertTrue(bitmap.contains(1001L));
+		assertFalse(bitmap.contains(1002L));
+		assertFalse(bitmap.contains(-1L));
+		assertEquals(3, bitmap.size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void 범위를_벗어난_id_는_추가할_수_없다() {
+		new ConcurrentLongBitmap().add(ConcurrentLongBitmap.MAX_ID + 1);
+	}
+
+	@Test
+	public void 여러_스레드가_같은_id_를_추가해도_한_스레드만_성공한다() throws Exception {
+		ConcurrentLongBitmap bitmap = new ConcurrentLongBitmap();
+		int threads = 8;
+		int ids = 200_000;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<Integer>> results = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			// 모든 스레드가 같은 id 범위를 추가한다. (multi-thread step 에서의 중복 read)
+			results.add(executor.submit(() -> {
+				int added = 0;
+				for (long id = 0; id < ids; id++) {
+					if (bitmap.add(id)) {
+						added++;
+					}
+				}
+				return added;
+			}));
+		}
+		int totalAdded = 0;
+		for (Future<Integer> result : results) {
+			totalAdded += result.get();
+		}
+		executor.shutdown();
+		executor.awaitTermination(10, TimeUnit.SECONDS);
+
+		assertEquals(ids, totalAdded);
+		assertEquals(ids, bitmap.size());
+	}
+
+	@Test
+	public void 파일로_저장한_뒤_다시_읽을_수_있다() throws Exception {
+		ConcurrentLongBitmap bitmap = new ConcurrentLongBitmap();
+		for (long id = 100_000; id < 150_000; id += 3) {
+			bitmap.add(id);
+		}
+		bitmap.add(3_000_000_000L);
+		Path file = temporaryFolder.getRoot().toPath().resolve("ids.bin");
+
+		bitmap.save(file);
+		ConcurrentLongBitmap loaded = ConcurrentLongBitmap.load(file);
+
+		assertEquals(bitmap.size(), loaded.size());
+		assertTrue(loaded.contains(100_000L));
+		assertFalse(loaded.contains(100_001L));
+		assertTrue(loaded.contains(3_000_000_000L));
+		assertFalse(loaded.add(100_003L));
+	}
+
+	@Test
+	public void 파일이_없으면_빈_bitmap_을_반환한다() throws Exception {
+		ConcurrentLongBitmap loaded = ConcurrentLongBitmap.load(temporaryFolder.getRoot().toPath().resolve("none.bin"));
+
+		assertEquals(0, loaded.size());
+	}
+}
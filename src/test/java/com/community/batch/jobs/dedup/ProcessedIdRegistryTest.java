@@ -0,0 +1,142 @@
+package com.community.batch.jobs.dedup;
+
+import com.community.batch.domain.InactiveUserCandidate;
+import com.community.batch.domain.enums.Grade;
+import com.community.batch.domain.enums.SocialType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ProcessedIdRegistryTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private ProcessedIdRegistry registry;
+
+	@Before
+	public void setUp() {
+		ProcessedIdProperties properties = new ProcessedIdProperties();
+		properties.setEnabled(true);
+		properties.setDirectory(temporaryFolder.getRoot().getPath());
+		registry = new ProcessedIdRegistry(properties);
+	}
+
+	@After
+	public void tearDown() {
+		while (StepSynchronizationManager.getContext() != null) {
+			StepSynchronizationManager.close();
+		}
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	public void commit_된_chunk_의_idx_만_기록된다() {
+		JobExecution jobExecution = start("job", 1L);
+
+		TransactionSynchronizationManager.initSynchronization();
+		registry.markArchivedAfterCommit(users(1001L, 1002L));
+		assertFalse(registry.isArchived(1001L)); // commit 전에는 기록되지 않는다.
+		complete(TransactionSynchronization.STATUS_COMMITTED);
+
+		TransactionSynchronizationManager.initSynchronization();
+		registry.markArchivedAfterCommit(users(1003L));
+		complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+		assertTrue(registry.isArchived(1001L));
+		assertTrue(registry.isArchived(1002L));
+		assertFalse(registry.isArchived(1003L));
+		assertEquals(2, registry.size(jobExecution));
+	}
+
+	@Test
+	public void 범위를_벗어난_idx_는_commit_전에_실패한다() {
+		JobExecution jobExecution = start("job", 1L);
+
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			registry.markArchivedAfterCommit(users(1001L, -1L));
+			fail();
+		} catch (IllegalArgumentException expected) {
+			// writer 에서 던지므로 chunk 가 rollback 된다.
+		}
+		assertTrue(TransactionSynchronizationManager.getSynchronizations().isEmpty());
+		assertEquals(0, registry.size(jobExecution));
+	}
+
+	@Test
+	public void 다음_실행은_파일에_저장된_idx_를_이어서_사용한다() {
+		JobExecution first = start("job", 1L);
+		registry.markArchivedAfterCommit(users(1001L)); // transaction 밖에서는 바로 기록한다.
+		first.setStatus(BatchStatus.FAILED); // 실패한 실행이라도 commit 된 idx 는 저장한다.
+		finish(first);
+
+		start("job", 2L);
+		assertTrue(registry.isArchived(1001L));
+		assertFalse(registry.isArchived(1002L));
+	}
+
+	@Test
+	public void 동시에_실행되는_job_은_bitmap_을_따로_사용한다() {
+		start("job", 1L);
+		registry.markArchivedAfterCommit(users(1001L));
+
+		JobExecution other = start("otherJob", 2L);
+		assertFalse(registry.isArchived(1001L));
+		registry.markArchivedAfterCommit(users(1002L));
+		finish(other);
+
+		assertTrue(registry.isArchived(1001L)); // 다시 첫 번째 job 의 step
+		assertFalse(registry.isArchived(1002L));
+	}
+
+	// beforeJob 을 호출하고, 현재 스레드에 이 job execution 의 step 을 등록한다.
+	private JobExecution start(String jobName, long jobExecutionId) {
+		JobExecution jobExecution = new JobExecution(new JobInstance(jobExecutionId, jobName), jobExecutionId,
+			new JobParameters(), null);
+		registry.beforeJob(jobExecution);
+		StepSynchronizationManager.register(jobExecution.createStepExecution("step"));
+		return jobExecution;
+	}
+
+	private void finish(JobExecution jobExecution) {
+		StepSynchronizationManager.close();
+		registry.afterJob(jobExecution);
+	}
+
+	private static List<InactiveUserCandidate> users(Long... idxs) {
+		return Arrays.stream(idxs)
+			.map(idx -> new InactiveUserCandidate(idx, Grade.VIP, SocialType.FACEBOOK))
+			.collect(Collectors.toList());
+	}
+
+	// TransactionSynchronizationUtils 가 commit/rollback 후에 호출하는 순서대로 호출한다.
+	private static void complete(int status) {
+		List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+		TransactionSynchronizationManager.clearSynchronization();
+		if (status == TransactionSynchronization.STATUS_COMMITTED) {
+			synchronizations.forEach(TransactionSynchronization::afterCommit);
+		}
+		synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+	}
+}
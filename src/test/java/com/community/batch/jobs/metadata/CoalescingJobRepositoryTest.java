@@ -0,0 +1,171 @@
+package com.community.batch.jobs.metadata;
+
+import com.community.batch.domain.InactiveUserCandidate;
+import com.community.batch.domain.enums.Grade;
+import com.community.batch.domain.enums.SocialType;
+import com.community.batch.jobs.writers.InactiveUserArchiveCompression;
+import com.community.batch.jobs.writers.InactiveUserArchiveReader;
+import com.community.batch.jobs.writers.InactiveUserArchiveWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.support.MapJobRepositoryFactoryBean;
+import org.springframework.batch.support.transaction.ResourcelessTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+public class CoalescingJobRepositoryTest {
+
+	private static final String ARCHIVE_CHECKPOINT_KEY = "InactiveUserArchiveWriter.file.offset";
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private JobRepository delegate;
+	private MeterRegistry meterRegistry;
+
+	@Before
+	public void setUp() throws Exception {
+		delegate = new MapJobRepositoryFactoryBean(new ResourcelessTransactionManager()).getObject();
+		meterRegistry = new SimpleMeterRegistry();
+	}
+
+	@Test
+	public void 실행중인_step_은_N_chunk_마다_기록하고_종료시_마지막_상태를_기록한다() throws Exception {
+		CoalescingJobRepository repository = new CoalescingJobRepository(delegate, 5, 60_000, 10, meterRegistry);
+		JobExecution jobExecution = repository.createJobExecution("job", new JobParametersBuilder().toJobParameters());
+		StepExecution stepExecution = jobExecution.createStepExecution("step");
+		repository.add(stepExecution);
+		stepExecution.setStatus(BatchStatus.STARTED);
+		repository.update(stepExecution);
+
+		for (int chunk = 1; chunk <= 7; chunk++) {
+			stepExecution.getExecutionContext().putInt("chunk", chunk);
+			stepExecution.setWriteCount(chunk);
+			repository.updateExecutionContext(stepExecution);
+			repository.update(stepExecution);
+		}
+		// 5 번째 chunk 에서 기록한 상태가 남아 있다.
+		StepExecution saved = delegate.getLastStepExecution(jobExecution.getJobInstance(), "step");
+		assertEquals(5, saved.getExecutionContext().getInt("chunk"));
+		assertEquals(5, saved.getWriteCount());
+
+		stepExecution.setStatus(BatchStatus.COMPLETED);
+		repository.updateExecutionContext(stepExecution);
+		repository.update(stepExecution);
+
+		saved = delegate.getLastStepExecution(jobExecution.getJobInstance(), "step");
+		assertEquals(BatchStatus.COMPLETED, saved.getStatus());
+		assertEquals(7, saved.getExecutionContext().getInt("chunk"));
+		assertEquals(7, saved.getWriteCount());
+		assertEquals(3.0, count("step", "written"), 0); // 시작, 5 번째 chunk, 종료
+		assertEquals(6.0, count("step", "coalesced"), 0);
+		assertEquals(7.0, count("context", "coalesced"), 0);
+		assertEquals(2.0, count("context", "written"), 0); // 5 번째 chunk, 종료
+	}
+
+	@Test
+	public void 시간이_지나면_chunk_수와_관계없이_기록한다() throws Exception {
+		CoalescingJobRepository repository = new CoalescingJobRepository(delegate, 1_000, 0, 10, meterRegistry);
+		JobExecution jobExecution = repository.createJobExecution("job", new JobParametersBuilder().toJobParameters());
+		StepExecution stepExecution = jobExecution.createStepExecution("step");
+		repository.add(stepExecution);
+		stepExecution.setStatus(BatchStatus.STARTED);
+		repository.update(stepExecution);
+
+		stepExecution.getExecutionContext().putInt("chunk", 1);
+		repository.updateExecutionContext(stepExecution);
+		repository.update(stepExecution);
+
+		assertEquals(1, delegate.getLastStepExecution(jobExecution.getJobInstance(), "step").getExecutionContext().getInt("chunk"));
+	}
+
+	@Test
+	public void 최근에_종료된_job_execution_을_historySize_개_까지_남긴다() throws Exception {
+		CoalescingJobRepository repository = new CoalescingJobRepository(delegate, 5, 60_000, 2, meterRegistry);
+		for (long run = 1; run <= 3; run++) {
+			JobExecution jobExecution = repository.createJobExecution("job",
+				new JobParametersBuilder().addLong("run", run).toJobParameters());
+			jobExecution.setStatus(BatchStatus.COMPLETED);
+			jobExecution.setEndTime(new Date());
+			repository.update(jobExecution);
+		}
+
+		List<Long> runs = repository.getRecentJobExecutions().stream()
+			.map(jobExecution -> jobExecution.getJobParameters().getLong("run"))
+			.collect(Collectors.toList());
+		assertEquals(2, runs.size());
+		assertEquals(Long.valueOf(2), runs.get(0));
+		assertEquals(Long.valueOf(3), runs.get(1));
+	}
+
+	@Test
+	public void archive_checkpoint_를_저장하는_step_은_flush_사이에_죽어도_archive_가_남는다() throws Exception {
+		CoalescingJobRepository repository = new CoalescingJobRepository(delegate, 4, 60_000, 10, meterRegistry);
+		repository.setWriteThroughContextKeys(Collections.singletonList(ARCHIVE_CHECKPOINT_KEY));
+		JobExecution jobExecution = repository.createJobExecution("job", new JobParametersBuilder().toJobParameters());
+		StepExecution stepExecution = jobExecution.createStepExecution("step");
+		repository.add(stepExecution);
+		stepExecution.setStatus(BatchStatus.STARTED);
+		repository.update(stepExecution);
+
+		// chunk 6 개가 commit 되어 1 ~ 6 번 회원이 INACTIVE 가 된 뒤, 다음 flush(8 번째 chunk) 전에 프로세스가 죽는다.
+		List<Long> inactive = new ArrayList<>();
+		InactiveUserArchiveWriter writer = archiveWriter();
+		writer.open(stepExecution.getExecutionContext());
+		for (long idx = 1; idx <= 6; idx++) {
+			commitChunk(repository, stepExecution, writer, idx);
+			inactive.add(idx);
+		}
+		writer.close(); // 파일 handle 만 닫는다. step 종료는 기록되지 않는다.
+
+		// 재시작하면 DB 에 남은 ExecutionContext 로 archive 를 열고, reader 는 아직 ACTIVE 인 7, 8 번 회원만 읽는다.
+		StepExecution restarted = delegate.getLastStepExecution(jobExecution.getJobInstance(), "step");
+		restarted.setStatus(BatchStatus.STARTED);
+		InactiveUserArchiveWriter restartedWriter = archiveWriter();
+		restartedWriter.open(restarted.getExecutionContext());
+		for (long idx = 7; idx <= 8; idx++) {
+			commitChunk(repository, restarted, restartedWriter, idx);
+			inactive.add(idx);
+		}
+		restartedWriter.close();
+
+		List<Long> archived = InactiveUserArchiveReader.read(restartedWriter.file(0)).stream()
+			.map(InactiveUserCandidate::getIdx)
+			.collect(Collectors.toList());
+		assertEquals(inactive, archived);
+	}
+
+	// TaskletStep 이 chunk 를 commit 할 때의 순서: stream.update -> ExecutionContext 기록 -> step execution 기록
+	private static void commitChunk(JobRepository repository, StepExecution stepExecution, InactiveUserArchiveWriter writer,
+		long idx) throws Exception {
+		writer.write(Collections.singletonList(new InactiveUserCandidate(idx, Grade.GOLD, SocialType.KAKAO)));
+		writer.update(stepExecution.getExecutionContext());
+		repository.updateExecutionContext(stepExecution);
+		stepExecution.setWriteCount(stepExecution.getWriteCount() + 1);
+		repository.update(stepExecution);
+	}
+
+	private InactiveUserArchiveWriter archiveWriter() {
+		return new InactiveUserArchiveWriter(temporaryFolder.getRoot().toPath(), "archive", InactiveUserArchiveCompression.DEFLATE,
+			1024 * 1024);
+	}
+
+	private double count(String kind, String result) {
+		return meterRegistry.get("batch.job.repository.updates").tag("kind", kind).tag("result", result).counter().count();
+	}
+}
@@ -0,0 +1,103 @@
+package com.community.batch.jobs.partitioner;
+
+import com.community.batch.domain.enums.Grade;
+import org.junit.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.partition.StepExecutionSplitter;
+import org.springframework.core.task.SyncTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.community.batch.jobs.partitioner.InactiveUserRangePartitioner.KEY_ESTIMATED_COUNT;
+import static com.community.batch.jobs.partitioner.InactiveUserRangePartitioner.KEY_GRADE;
+import static org.junit.Assert.assertEquals;
+
+public class WeightedPartitionHandlerTest {
+
+	private final JobExecution jobExecution = new JobExecution(1L);
+
+	@Test
+	public void 우선순위가_높은_grade_부터_같은_grade_안에서는_큰_partition_부터_실행한다() throws Exception {
+		List<String> executed = run(Arrays.asList(Grade.VIP, Grade.GOLD),
+			partition("family-big", Grade.FAMILY, 5_000),
+			partition("gold-small", Grade.GOLD, 10),
+			partition("vip-small", Grade.VIP, 5),
+			partition("family-small", Grade.FAMILY, 100),
+			partition("vip-big", Grade.VIP, 50),
+			partition("gold-big", Grade.GOLD, 1_000));
+
+		assertEquals(Arrays.asList("vip-big", "vip-small", "gold-big", "gold-small", "family-big", "family-small"), executed);
+	}
+
+	@Test
+	public void 우선순위가_없으면_예상_row_수가_큰_partition_부터_실행한다() throws Exception {
+		List<String> executed = run(Collections.emptyList(),
+			partition("p0", null, 10),
+			partition("p1", Grade.VIP, 300),
+			partition("p2", null, 2_000),
+			partition("p3", Grade.FAMILY, 50));
+
+		assertEquals(Arrays.asList("p2", "p1", "p3", "p0"), executed);
+	}
+
+	private List<String> run(List<Grade> gradePriority, StepExecution... partitions) throws Exception {
+		List<String> executed = new ArrayList<>();
+		Step step = new Step() {
+			@Override
+			public String getName() {
+				return "inactiveUserStep";
+			}
+
+			@Override
+			public boolean isAllowStartIfComplete() {
+				return false;
+			}
+
+			@Override
+			public int getStartLimit() {
+				return Integer.MAX_VALUE;
+			}
+
+			@Override
+			public void execute(StepExecution stepExecution) {
+				executed.add(stepExecution.getStepName());
+				stepExecution.setStatus(BatchStatus.COMPLETED);
+			}
+		};
+		Set<StepExecution> split = new LinkedHashSet<>(Arrays.asList(partitions));
+		StepExecutionSplitter splitter = new StepExecutionSplitter() {
+			@Override
+			public String getStepName() {
+				return "partitionerStep";
+			}
+
+			@Override
+			public Set<StepExecution> split(StepExecution stepExecution, int gridSize) {
+				return split;
+			}
+		};
+
+		WeightedPartitionHandler handler = new WeightedPartitionHandler(gradePriority);
+		handler.setStep(step);
+		handler.setTaskExecutor(new SyncTaskExecutor());
+		handler.handle(splitter, jobExecution.createStepExecution("partitionerStep"));
+		return executed;
+	}
+
+	private StepExecution partition(String name, Grade grade, long estimatedCount) {
+		StepExecution stepExecution = jobExecution.createStepExecution(name);
+		if (grade != null) {
+			stepExecution.getExecutionContext().putString(KEY_GRADE, grade.name());
+		}
+		stepExecution.getExecutionContext().putLong(KEY_ESTIMATED_COUNT, estimatedCount);
+		return stepExecution;
+	}
+}
@@ -0,0 +1,59 @@
+package com.community.batch.jobs.policy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.repeat.RepeatContext;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AdaptiveChunkCompletionPolicyTest {
+
+	@Test
+	public void 재시작한_step_은_ExecutionContext_의_chunk_크기부터_시작한다() {
+		StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+		stepExecution.getExecutionContext().putInt(AdaptiveChunkCompletionPolicy.CHUNK_SIZE_KEY, 400);
+		AdaptiveChunkCompletionPolicy policy = new AdaptiveChunkCompletionPolicy(new AdaptiveChunkProperties(),
+			new SimpleMeterRegistry());
+		assertEquals(100, policy.getChunkSize()); // initialSize
+
+		policy.beforeChunk(new ChunkContext(new StepContext(stepExecution)));
+
+		assertEquals(400, policy.getChunkSize());
+		RepeatContext context = policy.start(null);
+		for (int i = 0; i < 399; i++) {
+			context.increment();
+		}
+		assertFalse(policy.isComplete(context));
+		context.increment();
+		assertTrue(policy.isComplete(context));
+	}
+
+	@Test
+	public void 복원한_chunk_크기도_min_max_안으로_제한한다() {
+		StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+		stepExecution.getExecutionContext().putInt(AdaptiveChunkCompletionPolicy.CHUNK_SIZE_KEY, 5_000);
+		AdaptiveChunkCompletionPolicy policy = new AdaptiveChunkCompletionPolicy(new AdaptiveChunkProperties(),
+			new SimpleMeterRegistry());
+
+		policy.beforeChunk(new ChunkContext(new StepContext(stepExecution)));
+
+		assertEquals(1_000, policy.getChunkSize()); // maxSize
+	}
+
+	@Test
+	public void 처음_실행하는_step_은_initialSize_로_시작한다() {
+		StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution();
+		AdaptiveChunkCompletionPolicy policy = new AdaptiveChunkCompletionPolicy(new AdaptiveChunkProperties(),
+			new SimpleMeterRegistry());
+
+		policy.beforeChunk(new ChunkContext(new StepContext(stepExecution)));
+
+		assertEquals(100, policy.getChunkSize());
+	}
+}
@@ -0,0 +1,88 @@
+package com.community.batch.jobs.processor;
+
+import com.community.batch.domain.enums.Grade;
+import com.community.batch.domain.enums.SocialType;
+import org.junit.Test;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class InactiveUserRuleConditionTest {
+
+	private static final LocalDateTime NOW = LocalDateTime.of(2020, 7, 11, 0, 0);
+
+	private final InactiveUserRuleTable uniform = InactiveUserRuleTable.uniform(Period.ofYears(1));
+
+	@Test
+	public void 기준이_하나이면_조회_범위_조건만_만든다() {
+		List<Object> args = new ArrayList<>();
+		InactiveUserRuleCondition condition = new InactiveUserRuleCondition(uniform, InactiveUserRuleEvaluation.PUSH_DOWN, NOW, null);
+
+		assertEquals("updated_date < ?", condition.toSql(args));
+		assertEquals(Arrays.asList(Timestamp.valueOf(NOW.minusYears(1))), args);
+		assertFalse(condition.isPushedDown());
+	}
+
+	@Test
+	public void grade_별_기준을_CASE_조건_하나로_push_down_한다() {
+		InactiveUserRuleTable rules = uniform.withRetention(Grade.VIP, null, Period.ofYears(3));
+		List<Object> args = new ArrayList<>();
+		InactiveUserRuleCondition condition = new InactiveUserRuleCondition(rules, InactiveUserRuleEvaluation.PUSH_DOWN, NOW, null);
+
+		assertEquals("updated_date < ? and case when grade = ? and updated_date < ? then 1 when grade = ? then 0"
+			+ " when updated_date < ? then 1 else 0 end = 1", condition.toSql(args));
+		assertEquals(Arrays.asList(Timestamp.valueOf(NOW.minusYears(1)), "VIP", Timestamp.valueOf(NOW.minusYears(3)), "VIP",
+			Timestamp.valueOf(NOW.minusYears(1))), args);
+		assertTrue(condition.isPushedDown());
+	}
+
+	@Test
+	public void grade_와_socialType_조합별_기준과_null_칸을_구분한다() {
+		InactiveUserRuleTable rules = uniform
+			.withRetention(Grade.VIP, SocialType.KAKAO, Period.ofYears(2))
+			.withRetention(null, null, Period.ofYears(1))
+			.withRetention(Grade.GOLD, SocialType.KAKAO, Period.ofMonths(6));
+		Map<String, Object> parameters = new HashMap<>();
+		String jpql = new InactiveUserRuleCondition(rules, InactiveUserRuleEvaluation.PUSH_DOWN, NOW, null).toJpql("u", parameters);
+
+		// 모든 칸이 덮어써졌으므로 GOLD + KAKAO 만 다르다. 조회 범위는 가장 짧은 기준(6개월)으로 넓어진다.
+		assertEquals("u.updatedDate < :rule0 and case when u.grade = :rule1 and u.socialType = :rule2 and u.updatedDate < :rule3 then 1"
+			+ " when u.grade = :rule4 and u.socialType = :rule5 then 0 when u.updatedDate < :rule6 then 1 else 0 end = 1", jpql);
+		assertEquals(NOW.minusMonths(6), parameters.get("rule0"));
+		assertEquals(Grade.GOLD, parameters.get("rule1"));
+		assertEquals(SocialType.KAKAO, parameters.get("rule2"));
+		assertEquals(NOW.minusYears(1), parameters.get("rule6"));
+
+		Map<String, Object> nullGrade = new HashMap<>();
+		String nullGradeJpql = new InactiveUserRuleCondition(uniform.withRetention(Grade.VIP, null, Period.ofYears(3))
+			.withRetention(Grade.GOLD, null, Period.ofYears(3)).withRetention(Grade.FAMILY, null, Period.ofYears(3)),
+			InactiveUserRuleEvaluation.PUSH_DOWN, NOW, null).toJpql("u", nullGrade);
+		// 3년이 가장 흔하므로 grade 가 없는 회원(1년)만 분기로 남는다.
+		assertEquals("u.updatedDate < :rule0 and case when u.grade is null and u.updatedDate < :rule1 then 1"
+			+ " when u.grade is null then 0 when u.updatedDate < :rule2 then 1 else 0 end = 1", nullGradeJpql);
+	}
+
+	@Test
+	public void IN_JVM_모드에서는_가장_짧은_기준으로_조회하고_incremental_하한을_더한다() {
+		InactiveUserRuleTable rules = uniform.withRetention(Grade.VIP, null, Period.ofYears(3));
+		List<Object> args = new ArrayList<>();
+		InactiveUserRuleCondition condition = new InactiveUserRuleCondition(rules, InactiveUserRuleEvaluation.IN_JVM, NOW,
+			NOW.minusDays(1));
+
+		assertEquals("updated_date < ? and updated_date >= ?", condition.toSql(args));
+		assertEquals(NOW.minusYears(1), condition.getUpdatedDateTo());
+		// 이전 기준 시각에 대해 가장 긴 기준(VIP 3년)의 cutoff 부터 읽는다.
+		assertEquals(NOW.minusDays(1).minusYears(3), condition.getUpdatedDateFrom());
+		assertFalse(condition.isPushedDown());
+	}
+}
@@ -0,0 +1,85 @@
+package com.community.batch.jobs.processor;
+
+import com.community.batch.domain.InactiveUserCandidate;
+import com.community.batch.domain.enums.Grade;
+import com.community.batch.domain.enums.SocialType;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.time.Period;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class InactiveUserRuleProcessorTest {
+
+	private static final LocalDateTime NOW = LocalDateTime.of(2020, 7, 11, 0, 0);
+
+	private final InactiveUserRuleTable rules = InactiveUserRuleTable.uniform(Period.ofYears(1))
+		.withRetention(Grade.VIP, null, Period.ofYears(3))
+		.withRetention(null, SocialType.KAKAO, Period.ofMonths(6))
+		.withRetention(Grade.VIP, SocialType.KAKAO, Period.ofYears(2));
+
+	@Test
+	public void grade_와_socialType_별_기준으로_휴면_여부를_판단한다() {
+		InactiveUserRuleProcessor processor = new InactiveUserRuleProcessor(rules);
+		processor.prepare(NOW);
+
+		InactiveUserCandidate gold = candidate(Grade.GOLD, SocialType.FACEBOOK, NOW.minusMonths(13));
+		InactiveUserCandidate vip = candidate(Grade.VIP, SocialType.FACEBOOK, NOW.minusMonths(13));
+		InactiveUserCandidate oldVip = candidate(Grade.VIP, SocialType.GOOGLE, NOW.minusYears(3).minusDays(1));
+		InactiveUserCandidate kakao = candidate(Grade.FAMILY, SocialType.KAKAO, NOW.minusMonths(7));
+		InactiveUserCandidate vipKakao = candidate(Grade.VIP, SocialType.KAKAO, NOW.minusMonths(13));
+		InactiveUserCandidate unknown = candidate(null, null, NOW.minusMonths(13));
+
+		assertSame(gold, processor.process(gold));
+		assertNull(processor.process(vip));
+		assertSame(oldVip, processor.process(oldVip));
+		assertSame(kakao, processor.process(kakao));
+		assertNull(processor.process(vipKakao));
+		assertSame(unknown, processor.process(unknown));
+		assertEquals(Period.ofMonths(6), rules.retention(null, SocialType.KAKAO));
+		assertEquals(Period.ofYears(1), rules.retention(null, null));
+	}
+
+	@Test
+	public void item_을_판단할_때_객체를_만들지_않는다() {
+		java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+		Assume.assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+		com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean) threadMXBean;
+		Assume.assumeTrue(allocation.isThreadAllocatedMemorySupported() && allocation.isThreadAllocatedMemoryEnabled());
+
+		InactiveUserRuleProcessor processor = new InactiveUserRuleProcessor(rules);
+		processor.prepare(NOW);
+		InactiveUserCandidate[] candidates = new InactiveUserCandidate[Grade.values().length * SocialType.values().length];
+		int i = 0;
+		for (Grade grade : Grade.values()) {
+			for (SocialType socialType : SocialType.values()) {
+				candidates[i++] = candidate(grade, socialType, NOW.minusMonths(i * 3));
+			}
+		}
+
+		int items = 1_000_000;
+		long threadId = Thread.currentThread().getId();
+		long before = allocation.getThreadAllocatedBytes(threadId);
+		int inactive = 0;
+		for (int n = 0; n < items; n++) {
+			if (processor.process(candidates[n % candidates.length]) != null) {
+				inactive++;
+			}
+		}
+		long allocated = allocation.getThreadAllocatedBytes(threadId) - before;
+
+		assertTrue(inactive > 0);
+		// 측정 자체에서 생기는 약간의 할당을 제외하면 item 당 0 byte 이어야 한다.
+		assertTrue("allocated " + allocated + " bytes for " + items + " items", allocated < items / 100);
+	}
+
+	private static InactiveUserCandidate candidate(Grade grade, SocialType socialType, LocalDateTime updatedDate) {
+		return new InactiveUserCandidate(1L, grade, socialType, updatedDate);
+	}
+}
@@ -0,0 +1,122 @@
+package com.community.batch.jobs.processor;
+
+import com.community.batch.domain.InactiveUserCandidate;
+import com.community.batch.domain.enums.Grade;
+import com.community.batch.domain.enums.SocialType;
+import com.community.batch.jobs.listener.BatchMetrics;
+import com.community.batch.jobs.listener.BatchMetricsProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.batch.integration.async.AsyncItemProcessor;
+import org.springframework.batch.integration.async.AsyncItemWriter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * AsyncItemProcessor + AsyncItemWriter 로 감싼 InactiveUserSideEffectProcessor 의 chunk 처리.
+ */
+public class InactiveUserSideEffectProcessorTest {
+
+	private static final int CHUNK_SIZE = 8;
+	private static final long LATENCY_MS = 100;
+
+	private ThreadPoolTaskExecutor executor;
+	private InactiveUserSideEffectProperties properties;
+	private BatchMetrics metrics;
+
+	@Before
+	public void setUp() {
+		executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(CHUNK_SIZE);
+		executor.setMaxPoolSize(CHUNK_SIZE);
+		executor.initialize();
+
+		properties = new InactiveUserSideEffectProperties();
+		properties.setNotificationLatencyMs(LATENCY_MS);
+		properties.setArchiveLatencyMs(LATENCY_MS);
+		metrics = new BatchMetrics(new SimpleMeterRegistry(), new BatchMetricsProperties());
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdown();
+	}
+
+	@Test
+	public void chunk_지연은_가장_느린_item_수준이고_순서가_유지된다() throws Exception {
+		List<Long> written = new ArrayList<>();
+		AsyncItemWriter<InactiveUserCandidate> writer = asyncWriter(written);
+		AsyncItemProcessor<InactiveUserCandidate, InactiveUserCandidate> processor =
+			asyncProcessor(new InactiveUserSideEffectProcessor(properties, metrics));
+
+		long start = System.nanoTime();
+		writer.write(processChunk(processor));
+		long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+		// 순차 처리라면 CHUNK_SIZE * 2 * LATENCY_MS (1.6초) 가 걸린다.
+		assertTrue("elapsed " + elapsedMs + "ms", elapsedMs < CHUNK_SIZE * LATENCY_MS);
+		assertEquals(CHUNK_SIZE, written.size());
+		for (int i = 0; i < CHUNK_SIZE; i++) {
+			assertEquals(Long.valueOf(i + 1), written.get(i));
+		}
+	}
+
+	@Test
+	public void item_하나가_실패하면_write_시점에_예외가_전파된다() throws Exception {
+		List<Long> written = new ArrayList<>();
+		AsyncItemWriter<InactiveUserCandidate> writer = asyncWriter(written);
+		AsyncItemProcessor<InactiveUserCandidate, InactiveUserCandidate> processor =
+			asyncProcessor(new InactiveUserSideEffectProcessor(properties, metrics) {
+				@Override
+				protected void archive(InactiveUserCandidate user) throws InterruptedException {
+					super.archive(user);
+					if (user.getIdx() == 3L) {
+						throw new IllegalStateException("archive failed: " + user.getIdx());
+					}
+				}
+			});
+
+		try {
+			writer.write(processChunk(processor));
+			fail("archive 실패가 writer 에서 전파되어야 한다");
+		} catch (IllegalStateException e) {
+			assertEquals("archive failed: 3", e.getMessage());
+		}
+		// 실패한 chunk 는 delegate writer 까지 가지 않으므로 status 가 변경되지 않는다.
+		assertTrue(written.isEmpty());
+	}
+
+	private AsyncItemProcessor<InactiveUserCandidate, InactiveUserCandidate> asyncProcessor(
+		InactiveUserSideEffectProcessor delegate) throws Exception {
+		AsyncItemProcessor<InactiveUserCandidate, InactiveUserCandidate> processor = new AsyncItemProcessor<>();
+		processor.setDelegate(delegate);
+		processor.setTaskExecutor(executor);
+		processor.afterPropertiesSet();
+		return processor;
+	}
+
+	private static AsyncItemWriter<InactiveUserCandidate> asyncWriter(List<Long> written) throws Exception {
+		AsyncItemWriter<InactiveUserCandidate> writer = new AsyncItemWriter<>();
+		writer.setDelegate(items -> items.forEach(item -> written.add(item.getIdx())));
+		writer.afterPropertiesSet();
+		return writer;
+	}
+
+	private static List<Future<InactiveUserCandidate>> processChunk(
+		AsyncItemProcessor<InactiveUserCandidate, InactiveUserCandidate> processor) throws Exception {
+		List<Future<InactiveUserCandidate>> futures = new ArrayList<>();
+		for (long idx = 1; idx <= CHUNK_SIZE; idx++) {
+			futures.add(processor.process(new InactiveUserCandidate(idx, Grade.VIP, SocialType.FACEBOOK)));
+		}
+		return futures;
+	}
+}
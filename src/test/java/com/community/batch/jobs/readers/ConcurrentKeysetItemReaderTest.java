@@ -0,0 +1,104 @@
+package com.community.batch.jobs.readers;
+
+import org.junit.Test;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ConcurrentKeysetItemReaderTest {
+
+	private static final int ITEM_COUNT = 100_000;
+	private static final int PAGE_SIZE = 100;
+	private static final int THREADS = 8;
+
+	@Test
+	public void 여러_스레드가_읽어도_모든_item_을_한_번씩만_읽는다() throws Exception {
+		PagedReader delegate = new PagedReader(ITEM_COUNT, PAGE_SIZE);
+		ConcurrentKeysetItemReader<Long> reader = new ConcurrentKeysetItemReader<>(delegate);
+		reader.open(new ExecutionContext());
+
+		ConcurrentHashMap<Long, AtomicInteger> reads = new ConcurrentHashMap<>();
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			futures.add(executor.submit(() -> {
+				start.await();
+				Long item;
+				while ((item = reader.read()) != null) {
+					reads.computeIfAbsent(item, key -> new AtomicInteger()).incrementAndGet();
+				}
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> future : futures) {
+			future.get(30, TimeUnit.SECONDS);
+		}
+		executor.shutdown();
+		reader.close();
+
+		assertEquals(ITEM_COUNT, reads.size());
+		reads.values().forEach(count -> assertEquals(1, count.get()));
+		// 페이지 조회는 한 스레드씩, 페이지마다 한 번만 한다. (마지막 빈 페이지 포함)
+		assertEquals(ITEM_COUNT / PAGE_SIZE + 1, delegate.pageReads.get());
+		assertTrue(delegate.closed);
+	}
+
+	// DB 대신 0 부터 순서대로 페이지를 만드는 reader. readPage 가 동시에 호출되면 실패한다.
+	private static class PagedReader extends JpaKeysetPagingItemReader<Long> {
+
+		private final int itemCount;
+		private final int pageSize;
+		private final AtomicInteger pageReads = new AtomicInteger();
+		private final AtomicInteger inFlight = new AtomicInteger();
+		private long next;
+		private volatile boolean closed;
+
+		PagedReader(int itemCount, int pageSize) {
+			this.itemCount = itemCount;
+			this.pageSize = pageSize;
+		}
+
+		@Override
+		public List<Long> readPage() {
+			if (inFlight.incrementAndGet() != 1) {
+				throw new IllegalStateException("readPage called concurrently");
+			}
+			try {
+				pageReads.incrementAndGet();
+				List<Long> page = new ArrayList<>(pageSize);
+				while (page.size() < pageSize && next < itemCount) {
+					page.add(next++);
+				}
+				return page;
+			} finally {
+				inFlight.decrementAndGet();
+			}
+		}
+
+		@Override
+		public void open(ExecutionContext executionContext) {
+		}
+
+		@Override
+		public void update(ExecutionContext executionContext) {
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+		}
+	}
+}
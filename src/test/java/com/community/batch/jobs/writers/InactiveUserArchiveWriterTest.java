@@ -0,0 +1,103 @@
+package com.community.batch.jobs.writers;
+
+import com.community.batch.domain.InactiveUserCandidate;
+import com.community.batch.domain.enums.Grade;
+import com.community.batch.domain.enums.SocialType;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class InactiveUserArchiveWriterTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void chunk_를_block_으로_기록하고_다시_읽을_수_있다() throws Exception {
+		for (InactiveUserArchiveCompression compression : InactiveUserArchiveCompression.values()) {
+			InactiveUserArchiveWriter writer = writer(compression.name(), compression, 1024 * 1024);
+			writer.open(new ExecutionContext());
+			writer.write(chunk(1, 100));
+			writer.write(chunk(101, 50));
+			writer.close();
+
+			List<InactiveUserCandidate> archived = InactiveUserArchiveReader.read(writer.file(0));
+			assertEquals(150, archived.size());
+			assertEquals(Long.valueOf(1), archived.get(0).getIdx());
+			assertEquals(Grade.GOLD, archived.get(0).getGrade());
+			assertEquals(SocialType.KAKAO, archived.get(1).getSocialType());
+			assertEquals(Long.valueOf(150), archived.get(149).getIdx());
+		}
+	}
+
+	@Test
+	public void 재시작하면_checkpoint_이후에_기록된_block_을_잘라내고_이어서_기록한다() throws Exception {
+		ExecutionContext executionContext = new ExecutionContext();
+		InactiveUserArchiveWriter writer = writer("restart", InactiveUserArchiveCompression.DEFLATE, 1024 * 1024);
+		writer.open(executionContext);
+		writer.write(chunk(1, 10));
+		writer.update(executionContext); // chunk commit
+		writer.write(chunk(11, 10)); // 기록은 되었지만 commit 전에 중단됨
+		writer.close();
+
+		InactiveUserArchiveWriter restarted = writer("restart", InactiveUserArchiveCompression.DEFLATE, 1024 * 1024);
+		restarted.open(executionContext);
+		restarted.write(chunk(11, 10));
+		restarted.update(executionContext);
+		restarted.close();
+
+		List<Long> idxs = InactiveUserArchiveReader.read(restarted.file(0)).stream()
+			.map(InactiveUserCandidate::getIdx)
+			.collect(Collectors.toList());
+		assertEquals(20, idxs.size());
+		for (int i = 0; i < 20; i++) {
+			assertEquals(Long.valueOf(i + 1), idxs.get(i));
+		}
+	}
+
+	@Test
+	public void 파일이_최대_크기를_넘으면_다음_파일로_넘어간다() throws Exception {
+		ExecutionContext executionContext = new ExecutionContext();
+		InactiveUserArchiveWriter writer = writer("rotate", InactiveUserArchiveCompression.NONE, 1024);
+		writer.open(executionContext);
+		for (int i = 0; i < 10; i++) {
+			writer.write(chunk(i * 40 + 1, 40)); // 압축하지 않은 chunk 하나가 1KB 를 넘는다.
+			writer.update(executionContext);
+		}
+		writer.close();
+
+		int records = 0;
+		for (int index = 0; index < 10; index++) {
+			Path file = writer.file(index);
+			assertTrue(Files.exists(file));
+			records += InactiveUserArchiveReader.read(file).size();
+		}
+		assertEquals(400, records);
+	}
+
+	private InactiveUserArchiveWriter writer(String prefix, InactiveUserArchiveCompression compression, long maxFileBytes) {
+		InactiveUserArchiveWriter writer = new InactiveUserArchiveWriter(temporaryFolder.getRoot().toPath(), prefix,
+			compression, maxFileBytes);
+		writer.setForceOnCommit(false);
+		return writer;
+	}
+
+	private static List<InactiveUserCandidate> chunk(long fromIdx, int size) {
+		List<InactiveUserCandidate> chunk = new ArrayList<>(size);
+		for (long idx = fromIdx; idx < fromIdx + size; idx++) {
+			chunk.add(new InactiveUserCandidate(idx, Grade.values()[(int) (idx % 3)],
+				SocialType.values()[(int) (idx % 3)]));
+		}
+		return chunk;
+	}
+}
@@ -0,0 +1,73 @@
+package com.community.batch.launcher;
+
+import org.junit.Test;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LazyInitBeanFactoryPostProcessorTest {
+
+	private static final List<String> created = new ArrayList<>();
+
+	@Test
+	public void 참조된_bean_과_eager_type_의_bean_만_생성한다() {
+		created.clear();
+		try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+			context.addBeanFactoryPostProcessor(new LazyInitBeanFactoryPostProcessor());
+			context.register(JobsConfig.class);
+			context.refresh();
+
+			assertEquals(1, created.size());
+			assertTrue(created.contains("initializer"));
+
+			context.getBean("firstJob");
+			assertTrue(created.contains("firstJob"));
+			assertTrue(created.contains("firstStep"));
+			assertEquals(3, created.size()); // secondJob, secondStep 은 만들어지지 않는다.
+		}
+	}
+
+	@Configuration
+	static class JobsConfig {
+
+		@Bean
+		public Named firstStep() {
+			return new Named("firstStep");
+		}
+
+		@Bean
+		public Named firstJob(Named firstStep) {
+			return new Named("firstJob");
+		}
+
+		@Bean
+		public Named secondStep() {
+			return new Named("secondStep");
+		}
+
+		@Bean
+		public Named secondJob(Named secondStep) {
+			return new Named("secondJob");
+		}
+
+		@Bean
+		public SmartInitializingSingleton initializer() {
+			created.add("initializer");
+			return () -> { };
+		}
+	}
+
+	static class Named {
+
+		Named(String name) {
+			created.add(name);
+		}
+	}
+}